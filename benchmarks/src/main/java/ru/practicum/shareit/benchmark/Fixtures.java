@@ -0,0 +1,88 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.item.dto.CommentInfo;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detached entities and projections shaped like the ones the repositories return.
+ */
+final class Fixtures {
+
+    static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+    static final ZonedDateTime CREATED = START.atZone(ZoneId.systemDefault());
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User " + id);
+        user.setEmail("user" + id + "@email.com");
+        return user;
+    }
+
+    static List<Item> items(int count) {
+        User owner = user(1);
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Item item = new Item();
+            item.setId(i);
+            item.setName("Item " + i);
+            item.setDescription("Description of item " + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            items.add(item);
+        }
+        return items;
+    }
+
+    static List<Booking> bookings(int count) {
+        return bookings(count, 1);
+    }
+
+    /**
+     * Like an owner's booking history: every item is booked {@code bookingsPerItem} times.
+     */
+    static List<Booking> bookings(int count, int bookingsPerItem) {
+        List<Item> items = items(Math.max(1, count / bookingsPerItem));
+        User booker = user(2);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Booking booking = new Booking();
+            booking.setId(i + 1);
+            booking.setStart(START.plusHours(i));
+            booking.setEnd(START.plusHours(i + 1));
+            booking.setItem(items.get(i % items.size()));
+            booking.setBooker(booker);
+            booking.setStatus(BookingState.APPROVED);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+
+    /**
+     * {@code commentsPerItem} comments for every item with id from 1 to {@code itemCount}.
+     */
+    static List<CommentInfo> commentInfos(int itemCount, int commentsPerItem) {
+        List<CommentInfo> comments = new ArrayList<>(itemCount * commentsPerItem);
+        long id = 1;
+        for (long itemId = 1; itemId <= itemCount; itemId++) {
+            for (int i = 0; i < commentsPerItem; i++) {
+                comments.add(new CommentInfo(id, "Comment " + id, "User 2", CREATED.plusMinutes(id), itemId));
+                id++;
+            }
+        }
+        return comments;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.dto.CommentInfo;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ItemServiceImpl.combineItemsWithComments} through {@link ItemService#getItems()}: grouping comments
+ * by item and mapping both to DTOs. The repositories are stubs returning prepared lists, so no database time
+ * is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int items;
+
+    @Param({"0", "5"})
+    private int commentsPerItem;
+
+    private ItemService itemService;
+
+    @Setup
+    public void setUp() {
+        List<Item> itemList = Fixtures.items(items);
+        List<CommentInfo> comments = Fixtures.commentInfos(items, commentsPerItem);
+        itemService = new ItemServiceImpl(
+                stub(ItemRepository.class, Map.of("findAll", itemList)),
+                null,
+                null,
+                stub(CommentRepository.class, Map.of("findAllInfoByItemIdIn", comments)),
+                null,
+                null,
+                new ItemCache(new ConcurrentMapCacheManager(ItemCache.ITEMS, ItemCache.ITEM_COMMENTS)),
+                null,
+                Clock.systemDefaultZone());
+    }
+
+    @Benchmark
+    public List<ItemDto> combineItemsWithComments() {
+        return itemService.getItems();
+    }
+
+    /**
+     * Repository returning the given results by method name; a dynamic proxy adds less noise than a mock.
+     */
+    private static <T> T stub(Class<T> repository, Map<String, Object> results) {
+        Object stub = Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> {
+                    Object result = results.get(method.getName());
+                    if (result == null) {
+                        throw new UnsupportedOperationException(repository.getSimpleName() + "." + method.getName());
+                    }
+                    return result;
+                });
+        return repository.cast(stub);
+    }
+}
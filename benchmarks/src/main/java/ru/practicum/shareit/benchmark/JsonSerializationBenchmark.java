@@ -0,0 +1,74 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies as Spring MVC writes them: an ObjectMapper built the way Spring Boot builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Booking> bookingEntities;
+    private List<BookingDtoResponse> bookings;
+    private List<ItemDto> items;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        bookingEntities = Fixtures.bookings(size);
+        bookings = BookingMapper.toBookingDto(bookingEntities);
+        List<CommentResponseDto> comments = CommentMapper.toCommentResponseDto(Fixtures.commentInfos(1, 3));
+        items = ItemMapper.toItemDto(Fixtures.items(size));
+        items.forEach(item -> item.setComments(comments));
+    }
+
+    @Benchmark
+    public byte[] bookingDtoResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    /**
+     * Whole way of a booking listing from entities to the response body.
+     */
+    @Benchmark
+    public byte[] bookingsMappedAndSerialized() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(BookingMapper.toBookingDto(bookingEntities));
+    }
+
+    @Benchmark
+    public byte[] itemDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
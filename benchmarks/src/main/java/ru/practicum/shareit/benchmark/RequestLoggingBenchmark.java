@@ -0,0 +1,139 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.EntityFixtures;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second of a running server with the default logging (SQL echo, transaction tracing, synchronous
+ * console, stack traces of business errors) against the {@code prod} profile (async JSON lines).
+ * Both run on the in-memory H2 of the {@code test} profile. The console of the forked JVM is written to a file,
+ * as a container runtime would do with it, so the benchmark output stays readable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class RequestLoggingBenchmark {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Param({"test", "test,prod"})
+    private String profiles;
+
+    private PrintStream stdout;
+    private PrintStream stderr;
+    private PrintStream console;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest getBooking;
+    private HttpRequest getMissingUser;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path log = Files.createTempFile("shareit-" + profiles.replace(',', '-') + "-", ".log");
+        stdout = System.out;
+        stderr = System.err;
+        console = new PrintStream(new BufferedOutputStream(new FileOutputStream(log.toFile())), true);
+        System.setOut(console);
+        System.setErr(console);
+        stdout.println("Server console: " + log);
+
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .profiles(profiles.split(","))
+                .properties("server.port=0")
+                .run();
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        EntityFixtures fixtures = new EntityFixtures(
+                context.getBean(UserRepository.class), context.getBean(ItemRepository.class));
+        User owner = fixtures.user("owner");
+        User booker = fixtures.user("booker");
+        Booking booking = booking(fixtures.item(owner), booker);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        getBooking = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + booking.getId()))
+                .header(USER_HEADER, String.valueOf(booker.getId()))
+                .build();
+        getMissingUser = HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + Long.MAX_VALUE)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        System.setOut(stdout);
+        System.setErr(stderr);
+        console.close();
+    }
+
+    /**
+     * Found booking: two SQL statements and a transaction.
+     */
+    @Benchmark
+    public int getBooking() throws IOException, InterruptedException {
+        return send(getBooking, 200);
+    }
+
+    /**
+     * A 404: the path where business errors used to print their stack traces.
+     */
+    @Benchmark
+    public int getMissingUser() throws IOException, InterruptedException {
+        return send(getMissingUser, 404);
+    }
+
+    private int send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private Booking booking(Item item, User booker) {
+        Booking booking = new Booking();
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(BookingState.WAITING);
+        return context.getBean(BookingRepository.class).save(booking);
+    }
+}
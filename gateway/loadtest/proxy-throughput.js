@@ -0,0 +1,34 @@
+// Throughput of the gateway proxy at 5k concurrent connections.
+//
+// Run the server and the gateway, create a user and an item, then run once per client mode:
+//   java -jar gateway.jar --shareit-gateway.clients.users.mode=blocking --shareit-gateway.clients.items.mode=blocking
+//   k6 run -e GATEWAY=http://localhost:8080 gateway/loadtest/proxy-throughput.js
+//   java -jar gateway.jar --shareit-gateway.clients.users.mode=reactive --shareit-gateway.clients.items.mode=reactive
+//   k6 run -e GATEWAY=http://localhost:8080 gateway/loadtest/proxy-throughput.js
+// and compare http_reqs/s and the http_req_duration percentiles of the two runs.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const gateway = __ENV.GATEWAY || 'http://localhost:8080';
+const userId = __ENV.USER_ID || '1';
+
+export const options = {
+    scenarios: {
+        proxy: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 5000),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const headers = { 'X-Sharer-User-Id': userId };
+    const responses = http.batch([
+        ['GET', `${gateway}/users/${userId}`, null, { headers }],
+        ['GET', `${gateway}/items?from=0&size=10`, null, { headers }],
+        ['GET', `${gateway}/items/search?text=drill&from=0&size=10`, null, { headers }],
+    ]);
+    responses.forEach((response) => check(response, { 'status is 200': (r) => r.status === 200 }));
+}
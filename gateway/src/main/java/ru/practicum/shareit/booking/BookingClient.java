@@ -4,12 +4,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.util.client.BaseClient;
+import ru.practicum.shareit.util.client.ClientMode;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -17,16 +23,24 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         @Value("${shareit-gateway.clients.bookings.mode:blocking}") ClientMode mode,
+                         RestTemplateBuilder builder,
+                         ClientHttpRequestFactory shareitServerRequestFactory,
+                         WebClient.Builder webClientBuilder) {
         super(
+                mode,
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> shareitServerRequestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getBookingsByUserByState(long userId,
+    public Mono<ResponseEntity<byte[]>> getBookingsByUserByState(long userId,
                                                            String state,
                                                            Integer from,
                                                            Integer size
@@ -39,7 +53,7 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getOwnerItemsBooked(long userId,
+    public Mono<ResponseEntity<byte[]>> getOwnerItemsBooked(long userId,
                                                       String state,
                                                       Integer from,
                                                       Integer size
@@ -52,19 +66,56 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
 
+    public Mono<ResponseEntity<byte[]>> getBookingsByUserByStateAfter(long userId,
+                                                                String state,
+                                                                String after,
+                                                                Integer size
+    ) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.toUpperCase(),
+                "after", after,
+                "size", size
+        );
+        return get("?state={state}&after={after}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getOwnerItemsBookedAfter(long userId,
+                                                           String state,
+                                                           String after,
+                                                           Integer size
+    ) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.toUpperCase(),
+                "after", after,
+                "size", size
+        );
+        return get("/owner?state={state}&after={after}&size={size}", userId, parameters);
+    }
 
-    public ResponseEntity<Object> bookItem(long userId, BookingDtoRequest requestDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> exportOwnerItemsBooked(long userId, String format) {
+        Map<String, Object> parameters = Map.of(
+                "format", format
+        );
+        return getStream("/owner/export?format={format}", userId, parameters);
+    }
+
+
+    public Mono<ResponseEntity<byte[]>> bookItem(long userId, BookingDtoRequest requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<byte[]>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> updateBooking(long bookingId, Boolean approved, long userId) {
+    public Mono<ResponseEntity<byte[]>> updateBooking(long bookingId, Boolean approved, long userId) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + bookingId + "/?approved={approved}", userId, parameters);
     }
+
+    public Mono<ResponseEntity<byte[]>> updateBookings(List<BookingDecisionDto> decisions, long userId) {
+        return patch("", userId, decisions);
+    }
 }
@@ -6,11 +6,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -22,7 +28,7 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(
+    public Mono<ResponseEntity<byte[]>> createBooking(
             @RequestBody @Valid BookingDtoRequest requestDto,
             @RequestHeader("X-Sharer-User-Id") long userId
     ) {
@@ -31,19 +37,28 @@ public class BookingController {
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateBooking(
+    public Mono<ResponseEntity<byte[]>> updateBooking(
             @PathVariable long bookingId,
             @RequestParam Boolean approved,
             @RequestHeader("X-Sharer-User-Id") long userId
     ) {
 
-        ResponseEntity<Object> response = bookingClient.updateBooking(bookingId, approved, userId);
-        log.info("Booking updated: {}", response);
-        return response;
+        return bookingClient.updateBooking(bookingId, approved, userId)
+                .doOnNext(response -> log.info("Booking {} updated: {}", bookingId, response.getStatusCode()));
+    }
+
+    @PatchMapping
+    public Mono<ResponseEntity<byte[]>> updateBookings(
+            @RequestBody @NotEmpty @Size(max = 100) List<@Valid BookingDecisionDto> decisions,
+            @RequestHeader("X-Sharer-User-Id") long userId
+    ) {
+        log.info("Deciding {} bookings, userId={}", decisions.size(), userId);
+        return bookingClient.updateBookings(decisions, userId)
+                .doOnNext(response -> log.info("{} bookings updated: {}", decisions.size(), response.getStatusCode()));
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(
+    public Mono<ResponseEntity<byte[]>> getBooking(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PathVariable Long bookingId
     ) {
@@ -52,29 +67,45 @@ public class BookingController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getBookingsByUserByState(
+    public Mono<ResponseEntity<byte[]>> getBookingsByUserByState(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(required = false) String after
     ) {
 //        BookingState state = BookingState.from(stateParam)
 //                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, after={}, size={}", stateParam, userId, from, after, size);
+        if (after != null) return bookingClient.getBookingsByUserByStateAfter(userId, stateParam, after, size);
         return bookingClient.getBookingsByUserByState(userId, stateParam, from, size);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getOwnerItemsBooked(
+    public Mono<ResponseEntity<byte[]>> getOwnerItemsBooked(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(required = false) String after
     ) {
 //        BookingState state = BookingState.from(stateParam)
 //                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, after={}, size={}", stateParam, userId, from, after, size);
+        if (after != null) return bookingClient.getOwnerItemsBookedAfter(userId, stateParam, after, size);
         return bookingClient.getOwnerItemsBooked(userId, stateParam, from, size);
     }
 
+    /**
+     * Streamed from the server as it writes it, see {@code BaseClient#getStream}.
+     */
+    @GetMapping("/owner/export")
+    public Mono<ResponseEntity<StreamingResponseBody>> exportOwnerItemsBooked(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        log.info("Export bookings of owner {}, format={}", userId, format);
+        return bookingClient.exportOwnerItemsBooked(userId, format);
+    }
+
 }
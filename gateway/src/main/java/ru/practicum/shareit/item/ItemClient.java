@@ -3,14 +3,20 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.util.client.BaseClient;
+import ru.practicum.shareit.util.client.ClientMode;
+import ru.practicum.shareit.util.client.ResponseCache;
 
+import java.io.InputStream;
 import java.util.Map;
 
 @Service
@@ -19,24 +25,38 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      @Value("${shareit-gateway.clients.items.mode:blocking}") ClientMode mode,
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory shareitServerRequestFactory,
+                      WebClient.Builder webClientBuilder,
+                      ResponseCache responseCache) {
         super(
+                mode,
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> shareitServerRequestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> createItem(long ownerId, ItemDto itemDto) {
+    public Mono<ResponseEntity<byte[]>> createItem(long ownerId, ItemDto itemDto) {
         return post("", ownerId, itemDto);
     }
 
-    public ResponseEntity<Object> getItem(long itemId, long ownerId) {
+    public Mono<ResponseEntity<byte[]>> importItems(long ownerId, InputStream ndjson) {
+        return postStream("/import", ownerId, MediaType.APPLICATION_NDJSON, ndjson);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getItem(long itemId, long ownerId) {
         return get("/" + itemId, ownerId);
     }
 
-    public ResponseEntity<Object> getItemsByOwnerId(long ownerId, Integer from, Integer size) {
+    public Mono<ResponseEntity<byte[]>> getItemsByOwnerId(long ownerId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -44,11 +64,19 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", ownerId, parameters);
     }
 
-    public ResponseEntity<Object> updateItem(long itemId, long ownerId, ItemDto itemDto) {
+    public Mono<ResponseEntity<byte[]>> getItemsByOwnerIdAfter(long ownerId, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("?after={after}&size={size}", ownerId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> updateItem(long itemId, long ownerId, ItemDto itemDto) {
         return patch("/" + itemId, ownerId, itemDto);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<byte[]>> searchItems(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -57,11 +85,20 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> deleteItem(long itemId) {
+    public Mono<ResponseEntity<byte[]>> searchItemsAfter(String text, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "after", after,
+                "size", size
+        );
+        return get("/search?text={text}&after={after}&size={size}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> deleteItem(long itemId) {
         return delete("/" + itemId);
     }
 
-    public ResponseEntity<Object> createCommentToItem(long itemId, long bookerId, CommentRequestDto commentRequestDto) {
+    public Mono<ResponseEntity<byte[]>> createCommentToItem(long itemId, long bookerId, CommentRequestDto commentRequestDto) {
         return post("/" + itemId + "/comment", bookerId, commentRequestDto);
     }
 
@@ -2,16 +2,20 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -23,7 +27,7 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(
+    public Mono<ResponseEntity<byte[]>> createItem(
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @NotNull @RequestBody @Valid ItemDto itemDto
     ) {
@@ -31,8 +35,20 @@ public class ItemController {
         return itemClient.createItem(ownerId, itemDto);
     }
 
+    /**
+     * NDJSON, one item per line. The rows are validated by the server as it reads them.
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> importItems(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            HttpServletRequest request
+    ) throws IOException {
+        log.info("Import items, owner: {}", ownerId);
+        return itemClient.importItems(ownerId, request.getInputStream());
+    }
+
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(
+    public Mono<ResponseEntity<byte[]>> getItemById(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") long ownerId
     ) {
@@ -41,17 +57,19 @@ public class ItemController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getItemsByOwnerId(
+    public Mono<ResponseEntity<byte[]>> getItemsByOwnerId(
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @RequestParam(required = false, defaultValue = "0") @Min(0) int from,
-            @RequestParam(required = false, defaultValue = "10") @Min(0) int size
+            @RequestParam(required = false, defaultValue = "10") @Min(0) int size,
+            @RequestParam(required = false) String after
     ) {
         log.info("GET request received for items with owner id: {}", ownerId);
+        if (after != null) return itemClient.getItemsByOwnerIdAfter(ownerId, after, size);
         return itemClient.getItemsByOwnerId(ownerId, from, size);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(
+    public Mono<ResponseEntity<byte[]>> updateItem(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @RequestBody ItemDto itemDto
@@ -61,17 +79,19 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(
+    public Mono<ResponseEntity<byte[]>> searchItems(
             @RequestParam String text,
             @RequestParam(required = false, defaultValue = "0") @Min(0) int from,
-            @RequestParam(required = false, defaultValue = "10") @Min(0) int size
+            @RequestParam(required = false, defaultValue = "10") @Min(0) int size,
+            @RequestParam(required = false) String after
     ) {
         log.info("GET request received for query \"{}\"", text);
+        if (after != null) return itemClient.searchItemsAfter(text, after, size);
         return itemClient.searchItems(text, from, size);
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItem(
+    public Mono<ResponseEntity<byte[]>> deleteItem(
             @PathVariable long itemId
     ) {
         log.info("DELETE request received item with id: {}", itemId);
@@ -80,7 +100,7 @@ public class ItemController {
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createCommentToItem(
+    public Mono<ResponseEntity<byte[]>> createCommentToItem(
             @PathVariable long itemId,
             @RequestHeader("X-Sharer-User-Id") long bookerId,
             @RequestBody CommentRequestDto commentRequestDto
@@ -4,11 +4,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDescription;
 import ru.practicum.shareit.util.client.BaseClient;
+import ru.practicum.shareit.util.client.ClientMode;
+import ru.practicum.shareit.util.client.ResponseCache;
 
 import java.util.Map;
 
@@ -17,24 +21,34 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             @Value("${shareit-gateway.clients.requests.mode:blocking}") ClientMode mode,
+                             RestTemplateBuilder builder,
+                             ClientHttpRequestFactory shareitServerRequestFactory,
+                             WebClient.Builder webClientBuilder,
+                             ResponseCache responseCache) {
         super(
+                mode,
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> shareitServerRequestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> createItemRequest(long userId, ItemRequestDescription request) {
+    public Mono<ResponseEntity<byte[]>> createItemRequest(long userId, ItemRequestDescription request) {
         return post("", userId, request);
     }
 
-    public ResponseEntity<Object> getUserItemRequests(long userId) {
+    public Mono<ResponseEntity<byte[]>> getUserItemRequests(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getOtherUsersItemRequests(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<byte[]>> getOtherUsersItemRequests(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -42,7 +56,15 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemRequestById(long userId, long requestId) {
+    public Mono<ResponseEntity<byte[]>> getOtherUsersItemRequestsAfter(long userId, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("/all?after={after}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getItemRequestById(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
 
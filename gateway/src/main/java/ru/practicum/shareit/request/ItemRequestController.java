@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDescription;
 
 import javax.validation.Valid;
@@ -22,7 +23,7 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItemRequest(
+    public Mono<ResponseEntity<byte[]>> createItemRequest(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestBody @Valid ItemRequestDescription request
     ) {
@@ -31,7 +32,7 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserItemRequests(
+    public Mono<ResponseEntity<byte[]>> getUserItemRequests(
             @RequestHeader("X-Sharer-User-Id") long userId
     ) {
         log.info("GET request received for all Item Request of user: {}", userId);
@@ -39,17 +40,19 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getOtherUsersItemRequests(
+    public Mono<ResponseEntity<byte[]>> getOtherUsersItemRequests(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PositiveOrZero @RequestParam(required = false, defaultValue = "0") int from,
-            @Positive @RequestParam(required = false, defaultValue = "10") int size
+            @Positive @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false) String after
     ) {
         log.info("GET request received for other Item Request");
+        if (after != null) return itemRequestClient.getOtherUsersItemRequestsAfter(userId, after, size);
         return itemRequestClient.getOtherUsersItemRequests(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getItemRequestById(
+    public Mono<ResponseEntity<byte[]>> getItemRequestById(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PathVariable(name = "requestId") long requestId
     ) {
@@ -4,43 +4,57 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.util.client.BaseClient;
+import ru.practicum.shareit.util.client.ClientMode;
+import ru.practicum.shareit.util.client.ResponseCache;
 
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl,
+                      @Value("${shareit-gateway.clients.users.mode:blocking}") ClientMode mode,
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory shareitServerRequestFactory,
+                      WebClient.Builder webClientBuilder,
+                      ResponseCache responseCache) {
         super(
+                mode,
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> shareitServerRequestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> getUser(long userId) {
+    public Mono<ResponseEntity<byte[]>> getUser(long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> getUsers() {
+    public Mono<ResponseEntity<byte[]>> getUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(long userId, UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> updateUser(long userId, UserDto userDto) {
         return patch("/" + userId, userDto);
     }
 
-    public ResponseEntity<Object> deleteUser(long userId) {
+    public Mono<ResponseEntity<byte[]>> deleteUser(long userId) {
         return delete("/" + userId);
     }
 
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -21,44 +22,39 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@NotNull @RequestBody @Valid UserDto userDto) {
+    public Mono<ResponseEntity<byte[]>> createUser(@NotNull @RequestBody @Valid UserDto userDto) {
         log.info("POST request received new user: {}", userDto);
-        ResponseEntity<Object> response = userClient.createUser(userDto);
-        log.info("User created: {}", response.getBody());
-        return response;
+        return userClient.createUser(userDto)
+                .doOnNext(response -> log.info("User created: {}", response.getStatusCode()));
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<byte[]>> getAllUsers() {
         log.info("GET request received all users");
-        ResponseEntity<Object> response = userClient.getUsers();
-        log.info("{}", response);
-        return response;
+        return userClient.getUsers()
+                .doOnNext(response -> log.info("Users response: {}", response.getStatusCode()));
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable long userId) {
+    public Mono<ResponseEntity<byte[]>> getUserById(@PathVariable long userId) {
         log.info("GET request for user with id {}", userId);
-        ResponseEntity<Object> response = userClient.getUser(userId);
-        log.info("{}", response);
-        return response;
+        return userClient.getUser(userId)
+                .doOnNext(response -> log.info("User {} response: {}", userId, response.getStatusCode()));
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable long userId,
+    public Mono<ResponseEntity<byte[]>> updateUser(@PathVariable long userId,
                                              @RequestBody UserDto userDto) {
         log.info("PATCH request received user with id: {}", userId);
-        ResponseEntity<Object> response = userClient.updateUser(userId, userDto);
-        log.info("Updated user: {}", response);
-        return response;
+        return userClient.updateUser(userId, userDto)
+                .doOnNext(response -> log.info("User {} updated: {}", userId, response.getStatusCode()));
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable long userId) {
+    public Mono<ResponseEntity<byte[]>> deleteUser(@PathVariable long userId) {
         log.info("DELETE request received user with id: {}", userId);
-        ResponseEntity<Object> response = userClient.deleteUser(userId);
-        log.info("User with id {} deleted", userId);
-        return response;
+        return userClient.deleteUser(userId)
+                .doOnNext(response -> log.info("User with id {} deleted", userId));
     }
 
 }
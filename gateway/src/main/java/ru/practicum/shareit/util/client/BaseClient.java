@@ -1,102 +1,358 @@
 package ru.practicum.shareit.util.client;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class BaseClient {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection",
+            "keep-alive",
+            "proxy-authenticate",
+            "proxy-authorization",
+            "te",
+            "trailer",
+            "transfer-encoding",
+            "upgrade"
+    );
+
     protected final RestTemplate rest;
+    protected final WebClient webClient;
+    private final ClientMode mode;
+    private final ResponseCache responseCache;
 
     public BaseClient(RestTemplate rest) {
+        this(ClientMode.BLOCKING, rest, null);
+    }
+
+    public BaseClient(ClientMode mode, RestTemplate rest, @Nullable WebClient webClient) {
+        this(mode, rest, webClient, null);
+    }
+
+    public BaseClient(ClientMode mode,
+                      RestTemplate rest,
+                      @Nullable WebClient webClient,
+                      @Nullable ResponseCache responseCache) {
+        if (mode == ClientMode.REACTIVE && webClient == null) {
+            throw new IllegalArgumentException("Reactive mode needs a WebClient");
+        }
+        this.mode = mode;
         this.rest = rest;
+        this.webClient = webClient;
+        this.responseCache = responseCache;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<byte[]>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<byte[]>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<byte[]>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, Map<String, Object> parameters) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, long userId, Map<String, Object> parameters) {
         return patch(path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<byte[]>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<byte[]>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<byte[]>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method,
-                                                          String path,
-                                                          Long userId,
-                                                          @Nullable Map<String, Object> parameters,
-                                                          @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    /**
+     * Passes {@code body} on to the server while it is being read, e.g. a bulk upload, so it never sits
+     * in the gateway's memory as a whole.
+     */
+    protected Mono<ResponseEntity<byte[]>> postStream(String path, long userId, MediaType contentType, InputStream body) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setContentType(contentType);
+        if (mode == ClientMode.REACTIVE) {
+            Flux<DataBuffer> buffers = DataBufferUtils
+                    .readInputStream(() -> body, DefaultDataBufferFactory.sharedInstance, STREAM_BUFFER_SIZE)
+                    .subscribeOn(Schedulers.boundedElastic());
+            return webClient.post()
+                    .uri(path)
+                    .headers(requestHeaders -> requestHeaders.addAll(headers))
+                    .body(BodyInserters.fromDataBuffers(buffers))
+                    .exchangeToMono(response -> response.toEntity(byte[].class))
+                    .map(response -> prepareGatewayResponse(
+                            response.getStatusCodeValue(),
+                            response.getHeaders(),
+                            response.getBody()
+                    ));
+        }
+        return Mono.fromCallable(() -> {
+            ResponseEntity<byte[]> shareitServerResponse;
+            try {
+                shareitServerResponse = rest.execute(path, HttpMethod.POST, request -> {
+                    request.getHeaders().addAll(headers);
+                    // unbuffered requests of the shared request factory are written through setBody only
+                    if (request instanceof StreamingHttpOutputMessage) {
+                        ((StreamingHttpOutputMessage) request).setBody(out -> StreamUtils.copy(body, out));
+                    } else {
+                        StreamUtils.copy(body, request.getBody());
+                    }
+                }, rest.responseEntityExtractor(byte[].class));
+            } catch (HttpStatusCodeException e) {
+                return prepareGatewayResponse(e.getRawStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+            }
+            return prepareGatewayResponse(
+                    shareitServerResponse.getStatusCodeValue(),
+                    shareitServerResponse.getHeaders(),
+                    shareitServerResponse.getBody()
+            );
+        });
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    /**
+     * Passes the server's response on to the caller while it is being read, e.g. an export, so it never sits
+     * in the gateway's memory as a whole. The body is copied on a thread of {@link StreamingConfig}; the connection
+     * to the server is released once it is written out, or discarded if the request ends before that.
+     */
+    protected Mono<ResponseEntity<StreamingResponseBody>> getStream(String path,
+                                                                   long userId,
+                                                                   Map<String, Object> parameters) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.ALL));
+        RequestAttributes callerRequest = RequestContextHolder.getRequestAttributes();
+        if (mode == ClientMode.REACTIVE) {
+            return webClient.get()
+                    .uri(path, parameters)
+                    .headers(requestHeaders -> requestHeaders.addAll(headers))
+                    .retrieve()
+                    .onStatus(status -> true, response -> Mono.empty())
+                    .toEntityFlux(DataBuffer.class)
+                    .map(response -> prepareGatewayResponse(
+                            response.getStatusCodeValue(),
+                            response.getHeaders(),
+                            ServerResponseBody.of(
+                                    callerRequest,
+                                    out -> DataBufferUtils.write(response.getBody(), out)
+                                            .map(DataBufferUtils::release)
+                                            .blockLast(),
+                                    () -> response.getBody().subscribe(DataBufferUtils.releaseConsumer())
+                            )
+                    ));
+        }
+        return Mono.fromCallable(() -> {
+            ClientHttpRequest request = rest.getRequestFactory()
+                    .createRequest(rest.getUriTemplateHandler().expand(path, parameters), HttpMethod.GET);
+            request.getHeaders().addAll(headers);
+            ClientHttpResponse response = request.execute();
+            return prepareGatewayResponse(
+                    response.getRawStatusCode(),
+                    response.getHeaders(),
+                    ServerResponseBody.of(
+                            callerRequest,
+                            out -> {
+                                try (response) {
+                                    StreamUtils.copy(response.getBody(), out);
+                                }
+                            },
+                            response::close
+                    )
+            );
+        });
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> makeAndSendRequest(HttpMethod method,
+                                                                String path,
+                                                                Long userId,
+                                                                @Nullable Map<String, Object> parameters,
+                                                                @Nullable T body) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (method != HttpMethod.GET) {
+            return send(method, path, headers, parameters, body);
+        }
+
+        List<String> callerETags = callerIfNoneMatch();
+        if (responseCache == null) {
+            return send(method, path, headers, parameters, body)
+                    .map(response -> notModifiedIfMatches(response, callerETags));
+        }
+
+        String key = ResponseCache.key(path, userId, parameters);
+        ResponseEntity<byte[]> cached = responseCache.get(key);
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.getHeaders().getETag());
+        }
+        return send(method, path, headers, parameters, body)
+                .map(response -> {
+                    if (cached != null && response.getStatusCodeValue() == HttpStatus.NOT_MODIFIED.value()) {
+                        return cached;
+                    }
+                    responseCache.update(key, response);
+                    return response;
+                })
+                .map(response -> notModifiedIfMatches(response, callerETags));
+    }
+
+    /**
+     * ETags the caller already has, read on the request thread before the response may arrive on another one.
+     */
+    private static List<String> callerIfNoneMatch() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return Collections.emptyList();
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        HttpHeaders callerHeaders = new HttpHeaders();
+        callerHeaders.addAll(HttpHeaders.IF_NONE_MATCH, Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH)));
+        return callerHeaders.getIfNoneMatch();
+    }
+
+    /**
+     * 304 without a body when the caller already holds the ETag of the 200 response about to be returned.
+     */
+    private static ResponseEntity<byte[]> notModifiedIfMatches(ResponseEntity<byte[]> response, List<String> callerETags) {
+        String eTag = response.getHeaders().getETag();
+        if (callerETags.isEmpty() || eTag == null || response.getStatusCodeValue() != HttpStatus.OK.value()) {
+            return response;
+        }
+        for (String callerETag : callerETags) {
+            if (callerETag.equals("*") || weakETag(callerETag).equals(weakETag(eTag))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .headers(headers -> {
+                            headers.setETag(eTag);
+                            headers.addAll(HttpHeaders.CACHE_CONTROL, response.getHeaders()
+                                    .getOrEmpty(HttpHeaders.CACHE_CONTROL));
+                        })
+                        .build();
+            }
+        }
+        return response;
+    }
+
+    /**
+     * If-None-Match compares ETags weakly, so {@code W/"v1"} matches {@code "v1"}.
+     */
+    private static String weakETag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> send(HttpMethod method,
+                                                  String path,
+                                                  HttpHeaders headers,
+                                                  @Nullable Map<String, Object> parameters,
+                                                  @Nullable T body) {
+        if (mode == ClientMode.REACTIVE) {
+            return sendReactive(method, path, headers, parameters, body);
+        }
+        return Mono.fromCallable(() -> sendBlocking(method, path, headers, parameters, body));
+    }
+
+    private <T> ResponseEntity<byte[]> sendBlocking(HttpMethod method,
+                                                    String path,
+                                                    HttpHeaders headers,
+                                                    @Nullable Map<String, Object> parameters,
+                                                    @Nullable T body) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(e.getRawStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return prepareGatewayResponse(
+                shareitServerResponse.getStatusCodeValue(),
+                shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody()
+        );
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> sendReactive(HttpMethod method,
+                                                          String path,
+                                                          HttpHeaders headers,
+                                                          @Nullable Map<String, Object> parameters,
+                                                          @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient
+                .method(method)
+                .uri(path, parameters != null ? parameters : Collections.emptyMap())
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        WebClient.RequestHeadersSpec<?> exchange = body != null ? request.bodyValue(body) : request;
+        return exchange.exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(response -> prepareGatewayResponse(
+                        response.getStatusCodeValue(),
+                        response.getHeaders(),
+                        response.getBody()
+                ));
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -109,15 +365,27 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
+    /**
+     * The server's response as is: the body stays the raw bytes it sent, never parsed here.
+     * Only hop-by-hop headers are dropped, the servlet container sets its own.
+     */
+    private static <T> ResponseEntity<T> prepareGatewayResponse(int status,
+                                                                @Nullable HttpHeaders headers,
+                                                                @Nullable T body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        if (headers != null) {
+            HttpHeaders passedHeaders = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    passedHeaders.addAll(name, values);
+                }
+            });
+            responseBuilder.headers(passedHeaders);
+        }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.util.client;
+
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pooled Apache HttpClient to the server shared by every client in {@link ClientMode#BLOCKING} mode.
+ * The pool is exposed as {@code httpcomponents.httpclient.pool.*} metrics.
+ */
+@Configuration
+@EnableConfigurationProperties(BlockingClientProperties.class)
+public class BlockingClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager shareitServerConnectionManager(BlockingClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient shareitServerHttpClient(PoolingHttpClientConnectionManager shareitServerConnectionManager,
+                                                       BlockingClientProperties properties) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(shareitServerConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(properties.getKeepAlive().toMillis()))
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Request bodies are written straight to the connection, so uploads pass through without being buffered.
+     */
+    @Bean
+    public ClientHttpRequestFactory shareitServerRequestFactory(CloseableHttpClient shareitServerHttpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                new HttpComponentsClientHttpRequestFactory(shareitServerHttpClient);
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManagerMetricsBinder shareitServerConnectionPoolMetrics(
+            PoolingHttpClientConnectionManager shareitServerConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(shareitServerConnectionManager, "shareit-server");
+    }
+
+    /**
+     * Keeps a connection for as long as the server allows in its {@code Keep-Alive} header,
+     * or for {@code defaultMillis} when it says nothing.
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultMillis) {
+        return (response, context) -> {
+            long serverMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverMillis > 0 ? serverMillis : defaultMillis;
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.util.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.blocking")
+public class BlockingClientProperties {
+    private int maxConnections = 200;
+    private int maxConnectionsPerRoute = 200;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
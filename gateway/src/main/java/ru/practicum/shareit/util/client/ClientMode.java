@@ -0,0 +1,10 @@
+package ru.practicum.shareit.util.client;
+
+/**
+ * How a client talks to the server: {@code BLOCKING} holds the request thread for the whole
+ * {@code RestTemplate} call, {@code REACTIVE} sends it through the shared Netty pool and frees the thread.
+ */
+public enum ClientMode {
+    BLOCKING,
+    REACTIVE
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.util.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The server's latest 200 response with an ETag for each GET request, kept up to
+ * {@code shareit-gateway.response-cache.max-size} bytes of bodies in total.
+ * An entry is never served as is: {@link BaseClient} sends its ETag in {@code If-None-Match}
+ * and uses the entry only when the server answers 304, so a stale entry costs a full response and nothing more.
+ * Hits, misses and evictions are exposed as {@code cache.*} metrics with {@code cache=gateway-responses}.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache implements MeterBinder {
+
+    private final Cache<String, ResponseEntity<byte[]>> responses;
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, ResponseEntity<byte[]> response) ->
+                        key.length() + (response.getBody() != null ? response.getBody().length : 0))
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .recordStats()
+                .build();
+    }
+
+    public static String key(String path, @Nullable Long userId, @Nullable Map<String, Object> parameters) {
+        return userId + " " + path + " " + new TreeMap<>(parameters != null ? parameters : Collections.emptyMap());
+    }
+
+    @Nullable
+    public ResponseEntity<byte[]> get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    /**
+     * Keeps a fresh 200 response with an ETag, forgets the key on anything else.
+     */
+    public void update(String key, ResponseEntity<byte[]> response) {
+        if (response.getStatusCodeValue() == HttpStatus.OK.value() && response.getHeaders().getETag() != null) {
+            responses.put(key, response);
+        } else {
+            responses.invalidate(key);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "gateway-responses");
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.util.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.response-cache")
+public class ResponseCacheProperties {
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+    private Duration expireAfterAccess = Duration.ofMinutes(10);
+}
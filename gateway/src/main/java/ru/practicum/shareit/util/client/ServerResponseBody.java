@@ -0,0 +1,68 @@
+package ru.practicum.shareit.util.client;
+
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Body of a response streamed from the server, holding the connection it is read from.
+ * Either it is written out on the MVC async thread, or, when the request times out, fails or the client goes away
+ * before that, {@link #INTERCEPTOR} discards it, so the connection goes back to the pool either way.
+ */
+class ServerResponseBody implements StreamingResponseBody {
+
+    private static final String ATTRIBUTE = ServerResponseBody.class.getName();
+
+    /**
+     * Discards the body of the request once its async processing is over, unless it has been written.
+     */
+    static final CallableProcessingInterceptor INTERCEPTOR = new CallableProcessingInterceptor() {
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            Object body = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (body instanceof ServerResponseBody) {
+                ((ServerResponseBody) body).discard();
+            }
+        }
+    };
+
+    private final StreamingResponseBody writer;
+    private final Runnable discarder;
+    private final AtomicBoolean taken = new AtomicBoolean();
+
+    private ServerResponseBody(StreamingResponseBody writer, Runnable discarder) {
+        this.writer = writer;
+        this.discarder = discarder;
+    }
+
+    /**
+     * {@code writer} copies the body and releases the connection, {@code discarder} only releases it.
+     */
+    static ServerResponseBody of(@Nullable RequestAttributes request, StreamingResponseBody writer, Runnable discarder) {
+        ServerResponseBody body = new ServerResponseBody(writer, discarder);
+        if (request != null) {
+            request.setAttribute(ATTRIBUTE, body, RequestAttributes.SCOPE_REQUEST);
+        }
+        return body;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        if (taken.compareAndSet(false, true)) {
+            writer.writeTo(out);
+        }
+    }
+
+    void discard() {
+        if (taken.compareAndSet(false, true)) {
+            discarder.run();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.util.client;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streamed bodies, see {@link BaseClient#getStream}, are copied on threads of their own: an export holds its
+ * thread until the last byte is written, so it must not wait behind, or hold up, anything else.
+ * With no queue by default, an export over {@code shareit-gateway.streaming.max-threads} is refused at once
+ * rather than left waiting for a thread.
+ */
+@Configuration
+@EnableConfigurationProperties(StreamingProperties.class)
+public class StreamingConfig implements WebMvcConfigurer {
+
+    private final StreamingProperties properties;
+
+    public StreamingConfig(StreamingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor streamingTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("gateway-stream-");
+        executor.setCorePoolSize(properties.getMaxThreads());
+        executor.setMaxPoolSize(properties.getMaxThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingTaskExecutor());
+        configurer.registerCallableInterceptors(ServerResponseBody.INTERCEPTOR);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.util.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.streaming")
+public class StreamingProperties {
+    private int maxThreads = 64;
+    private int queueCapacity = 0;
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.util.exception.handler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.validation.ConstraintViolationException;
+
+/**
+ * Requests refused by the gateway's own validation, before anything is sent to the server.
+ * Invalid request bodies are answered with 400 by Spring itself.
+ */
+@Slf4j
+@RestControllerAdvice
+public class ErrorHandler {
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleConstraintViolationException(final ConstraintViolationException e) {
+        log.warn("Bad request: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+}
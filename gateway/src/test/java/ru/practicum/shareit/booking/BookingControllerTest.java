@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookingController.class)
+class BookingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookingClient bookingClient;
+
+    @Test
+    void updateBookings_whenNoDecisions_thenBadRequest() throws Exception {
+        mockMvc.perform(patch("/bookings")
+                        .content("[]")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(bookingClient, never()).updateBookings(anyList(), anyLong());
+    }
+
+    @Test
+    void updateBookings_whenMoreThanHundredDecisions_thenBadRequest() throws Exception {
+        String decisions = IntStream.rangeClosed(1, 101)
+                .mapToObj(id -> "{\"bookingId\": " + id + ", \"approved\": true}")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        mockMvc.perform(patch("/bookings")
+                        .content(decisions)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(bookingClient, never()).updateBookings(anyList(), anyLong());
+    }
+}
@@ -0,0 +1,243 @@
+package ru.practicum.shareit.util.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BaseClientTest {
+
+    private static final String USER = "{\"id\":1,\"name\":\"Mark\"}";
+    private static final String EXPORT = "id,status\n1,APPROVED\n2,WAITING\n";
+
+    private final List<String> receivedIfNoneMatch = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ConnectionProvider connectionProvider;
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/export", exchange -> {
+            if ("format=csv".equals(exchange.getRequestURI().getQuery())) {
+                respond(exchange, 200, "text/csv", EXPORT.getBytes(StandardCharsets.UTF_8));
+            } else {
+                respond(exchange, 400, MediaType.APPLICATION_JSON_VALUE,
+                        "{\"error\":\"Unknown format\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/import", exchange -> {
+            byte[] upload = exchange.getRequestBody().readAllBytes();
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            int status = MediaType.APPLICATION_NDJSON_VALUE.equals(contentType) ? 200 : 415;
+            respond(exchange, status, MediaType.APPLICATION_JSON_VALUE,
+                    ("{\"received\":" + upload.length + "}").getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/users/1", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            receivedIfNoneMatch.add(String.valueOf(ifNoneMatch));
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            if ("\"v1\"".equals(ifNoneMatch)) {
+                // the JDK server drops the connection after a 304 without saying so
+                exchange.getResponseHeaders().set("Connection", "close");
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                respond(exchange, 200, MediaType.APPLICATION_JSON_VALUE, USER.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        RequestContextHolder.resetRequestAttributes();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        if (connectionProvider != null) connectionProvider.dispose();
+        if (connectionManager != null) connectionManager.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void get_whenCachedResponseNotModified_thenServeCachedBodyOrNotModifiedToCaller(ClientMode mode) {
+        TestClient client = client(mode);
+
+        ResponseEntity<byte[]> first = client.get("/users/1").block();
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(USER, new String(first.getBody(), StandardCharsets.UTF_8));
+
+        ResponseEntity<byte[]> revalidated = client.get("/users/1").block();
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertEquals(USER, new String(revalidated.getBody(), StandardCharsets.UTF_8));
+        assertEquals("\"v1\"", revalidated.getHeaders().getETag());
+
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+        servletRequest.addHeader("If-None-Match", "W/\"v1\"");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest));
+        ResponseEntity<byte[]> notModified = client.get("/users/1").block();
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        assertEquals("\"v1\"", notModified.getHeaders().getETag());
+
+        assertEquals(List.of("null", "\"v1\"", "\"v1\""), receivedIfNoneMatch);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void getStream_whenOk_thenPassBodyAndHeaders(ClientMode mode) throws IOException {
+        ResponseEntity<StreamingResponseBody> response = client(mode)
+                .getStream("/export?format={format}", 1L, Map.of("format", "csv"))
+                .block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.parseMediaType("text/csv"), response.getHeaders().getContentType());
+        assertEquals(EXPORT, write(response.getBody()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void getStream_whenServerFails_thenPassStatusAndBody(ClientMode mode) throws IOException {
+        ResponseEntity<StreamingResponseBody> response = client(mode)
+                .getStream("/export?format={format}", 1L, Map.of("format", "xml"))
+                .block();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("{\"error\":\"Unknown format\"}", write(response.getBody()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void getStream_whenRequestEndsBeforeBodyWritten_thenReleaseConnection(ClientMode mode) throws Exception {
+        TestClient client = client(mode);
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest));
+
+            client.getStream("/export?format={format}", 1L, Map.of("format", "csv")).block();
+            ServerResponseBody.INTERCEPTOR.afterCompletion(new ServletWebRequest(servletRequest), null);
+        }
+
+        // one connection in the pool: it was released every time, or this would time out waiting for it
+        ResponseEntity<StreamingResponseBody> response = client
+                .getStream("/export?format={format}", 1L, Map.of("format", "csv"))
+                .block();
+        assertEquals(EXPORT, write(response.getBody()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void postStream_whenOk_thenPassUploadAndResponse(ClientMode mode) {
+        byte[] upload = "{\"name\":\"Drill\"}\n{\"name\":\"Saw\"}\n".getBytes(StandardCharsets.UTF_8);
+
+        ResponseEntity<byte[]> response = client(mode)
+                .postStream("/import", 1L, MediaType.APPLICATION_NDJSON, new ByteArrayInputStream(upload))
+                .block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"received\":" + upload.length + "}", new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void postStream_whenServerRefuses_thenPassStatus(ClientMode mode) {
+        ResponseEntity<byte[]> response = client(mode)
+                .postStream("/import", 1L, MediaType.TEXT_PLAIN, new ByteArrayInputStream(new byte[]{1}))
+                .block();
+
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, response.getStatusCode());
+    }
+
+    private TestClient client(ClientMode mode) {
+        String url = "http://localhost:" + server.getAddress().getPort();
+
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(1);
+        connectionManager.setDefaultMaxPerRoute(1);
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(
+                HttpClients.custom()
+                        .setConnectionManager(connectionManager)
+                        .setDefaultRequestConfig(RequestConfig.custom().setConnectionRequestTimeout(2000).build())
+                        .build());
+        requestFactory.setBufferRequestBody(false);
+
+        connectionProvider = ConnectionProvider.builder("test")
+                .maxConnections(1)
+                .pendingAcquireTimeout(Duration.ofSeconds(2))
+                .build();
+
+        return new TestClient(
+                mode,
+                new RestTemplateBuilder()
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(url))
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                WebClient.builder()
+                        .clientConnector(new ReactorClientHttpConnector(
+                                reactor.netty.http.client.HttpClient.create(connectionProvider)))
+                        .baseUrl(url)
+                        .build(),
+                new ResponseCache(new ResponseCacheProperties())
+        );
+    }
+
+    private static String write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(ClientMode mode, RestTemplate rest, WebClient webClient, ResponseCache responseCache) {
+            super(mode, rest, webClient, responseCache);
+        }
+    }
+}
@@ -2,13 +2,26 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.booking.service.BookingExportService;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.util.exception.UnsupportedExportFormatException;
+import ru.practicum.shareit.util.pagination.CursorPage;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -18,6 +31,7 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
 
     @PostMapping
     public BookingDtoResponse createBooking(
@@ -42,6 +56,17 @@ public class BookingController {
         return response;
     }
 
+    @PatchMapping
+    public List<BookingDtoResponse> updateBookings(
+            @RequestBody @NotEmpty List<@Valid BookingDecisionDto> decisions,
+            @RequestHeader("X-Sharer-User-Id") long userId
+    ) {
+        log.info("PATCH request received for {} bookings of owner {}", decisions.size(), userId);
+        List<BookingDtoResponse> response = bookingService.updateBookings(decisions, userId);
+        log.info("Bookings updated: {}", response);
+        return response;
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDtoResponse getBooking(
             @PathVariable long bookingId,
@@ -81,4 +106,56 @@ public class BookingController {
         return response;
     }
 
+    /**
+     * The whole booking history of the owner's items, newest first, as NDJSON (one booking per line, as in
+     * the listings) or CSV. Written while it is read from the database, never held in memory as a whole.
+     */
+    @GetMapping("/owner/export")
+    public void exportOwnerItemsBooked(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        log.info("GET request received for {} export of bookings of owner {}", format, userId);
+        BookingExportFormat exportFormat = BookingExportFormat.from(format)
+                .orElseThrow(() -> new UnsupportedExportFormatException("Unknown format: " + format));
+        bookingExportService.exportOwnerItemsBooked(userId, exportFormat, () -> {
+            response.setContentType(exportFormat.getContentType());
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("bookings." + exportFormat.name().toLowerCase(Locale.ROOT))
+                    .build()
+                    .toString());
+            return response.getOutputStream();
+        });
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<List<BookingDtoResponse>> getBookingsByUserByStateAfter(
+            @RequestParam String state,
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam String after,
+            @RequestParam int size
+    ) {
+        log.info("GET request received for bookings of user {} after cursor \"{}\"", userId, after);
+        CursorPage<BookingDtoResponse> response = bookingService
+                .getBookingsByUserByStateAfter(state, userId, after, size);
+        log.info("Bookings: {}", response.getContent());
+        return response.toResponseEntity();
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public ResponseEntity<List<BookingDtoResponse>> getOwnerItemsBookedAfter(
+            @RequestParam String state,
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam String after,
+            @RequestParam int size
+    ) {
+        log.info("GET request received for item booked of owner {} after cursor \"{}\"", userId, after);
+        CursorPage<BookingDtoResponse> response = bookingService
+                .getOwnerItemsBookedAfter(state, userId, after, size);
+        log.info("Bookings: {}", response.getContent());
+        return response.toResponseEntity();
+    }
+
 }
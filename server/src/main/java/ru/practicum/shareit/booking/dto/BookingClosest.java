@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -10,9 +11,17 @@ import lombok.Setter;
 public class BookingClosest {
     private Long id;
     private Long bookerId;
+    @JsonIgnore
+    private Long itemId;
 
     public BookingClosest(Long id, Long bookerId) {
         this.id = id;
         this.bookerId = bookerId;
     }
+
+    public BookingClosest(Long id, Long bookerId, Long itemId) {
+        this.id = id;
+        this.bookerId = bookerId;
+        this.itemId = itemId;
+    }
 }
@@ -3,41 +3,56 @@ package ru.practicum.shareit.booking.mapper;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @UtilityClass
 public class BookingMapper {
 
     public static BookingDtoResponse toBookingDto(Booking booking) {
-        String startDate = DateTimeFormatter
-                .ofPattern("yyyy-MM-dd'T'HH:mm:ss")
-                .format(booking.getStart());
-
-        String endDate = DateTimeFormatter
-                .ofPattern("yyyy-MM-dd'T'HH:mm:ss")
-                .format(booking.getEnd());
-
-        return BookingDtoResponse.builder()
-                .id(booking.getId())
-                .status(String.valueOf(booking.getStatus()))
-                .start(startDate)
-                .end(endDate)
-                .booker(booking.getBooker() != null ? UserMapper.toUserDto(booking.getBooker()) : null)
-                .item(ItemMapper.toItemDto(booking.getItem()))
-                .build();
+        return toBookingDto(
+                booking,
+                booking.getBooker() != null ? UserMapper.toUserDto(booking.getBooker()) : null,
+                ItemMapper.toItemDto(booking.getItem())
+        );
     }
 
+    /**
+     * Bookings of one listing mostly repeat a few items and bookers, so their DTOs are built once per list
+     * and shared between the bookings.
+     */
     public static List<BookingDtoResponse> toBookingDto(List<Booking> bookings) {
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        List<BookingDtoResponse> bookingDtos = new ArrayList<>(bookings.size());
+        Map<Long, UserDto> bookers = new HashMap<>();
+        Map<Long, ItemDto> items = new HashMap<>();
+        for (Booking booking : bookings) {
+            User booker = booking.getBooker();
+            UserDto bookerDto = null;
+            if (booker != null) {
+                bookerDto = bookers.get(booker.getId());
+                if (bookerDto == null) {
+                    bookerDto = UserMapper.toUserDto(booker);
+                    bookers.put(booker.getId(), bookerDto);
+                }
+            }
+            Item item = booking.getItem();
+            ItemDto itemDto = items.get(item.getId());
+            if (itemDto == null) {
+                itemDto = ItemMapper.toItemDto(item);
+                items.put(item.getId(), itemDto);
+            }
+            bookingDtos.add(toBookingDto(booking, bookerDto, itemDto));
+        }
+        return bookingDtos;
     }
 
     public static Booking fromBookingDtoRequest(ru.practicum.shareit.booking.dto.BookingDtoRequest dto, User booker, Item item) {
@@ -49,4 +64,15 @@ public class BookingMapper {
         return booking;
     }
 
+    private static BookingDtoResponse toBookingDto(Booking booking, UserDto booker, ItemDto item) {
+        return BookingDtoResponse.builder()
+                .id(booking.getId())
+                .status(String.valueOf(booking.getStatus()))
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .booker(booker)
+                .item(item)
+                .build();
+    }
+
 }
@@ -28,4 +28,6 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private BookingState status;
+    @Version
+    private long version;
 }
@@ -1,85 +1,301 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.dto.BookingClosest;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 
+import javax.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Listings fetch the item and the booker of every booking in the same statement: the mapper reads both,
+ * and one by one they would cost a select per row. Of the item's owner and request only the ids are read,
+ * which their proxies hold without a select.
+ * <p>
+ * Time states compare with a {@code now} bound by the caller from the application {@link java.time.Clock}, the same
+ * clock the rest of the server reads, instead of the database's {@code CURRENT_TIMESTAMP}. PAST also bounds
+ * {@code start}, which the end bound implies, so it is a range on the start date indexes like the other states.
+ */
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Modifying
-    @Query("UPDATE Booking b SET " +
-            "b.status = CASE WHEN :available = TRUE THEN 'APPROVED' " +
-            "ELSE 'REJECTED' END " +
+    int EXPORT_FETCH_SIZE = 500;
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH i.owner " +
+            "JOIN FETCH b.booker " +
             "WHERE b.id = :bookingId")
-    void updateBookingStatusById(Long bookingId, Boolean available);
+    Optional<Booking> findWithItemAndBookerById(long bookingId);
+
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH i.owner " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.id IN :bookingIds")
+    List<Booking> findAllWithItemAndBookerByIdIn(Collection<Long> bookingIds);
 
+    /**
+     * Decides a waiting booking of an item of {@code ownerId} in one statement. Returns 0 when the booking
+     * is not there, belongs to another owner or has already been decided, e.g. by a concurrent request,
+     * so only one of several racing decisions takes effect.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET " +
+            "b.status = :status, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId " +
+            "AND b.status = 'WAITING' " +
+            "AND b.item.id IN (SELECT it.id FROM Item AS it WHERE it.owner.id = :ownerId)")
+    int updateStatusIfWaiting(long bookingId, long ownerId, BookingState status);
+
+    /**
+     * Approves a waiting booking like {@link #updateStatusIfWaiting}, and only if no approved booking of
+     * the item overlaps it. Callers lock the item first, so two overlapping approvals can't both pass.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET " +
+            "b.status = 'APPROVED', " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId " +
+            "AND b.status = 'WAITING' " +
+            "AND b.item.id IN (SELECT it.id FROM Item AS it WHERE it.owner.id = :ownerId) " +
+            "AND NOT EXISTS (SELECT o.id FROM Booking AS o " +
+            "WHERE o.item.id = b.item.id " +
+            "AND o.status = 'APPROVED' " +
+            "AND o.start < b.end " +
+            "AND o.end > b.start)")
+    int approveIfWaitingAndFree(long bookingId, long ownerId);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(long bookerId, BookingState status, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = :bookerId " +
-            "AND b.start < CURRENT_TIMESTAMP " +
-            "AND b.end > CURRENT_TIMESTAMP " +
+            "AND b.start < :now " +
+            "AND b.end > :now " +
             "ORDER BY b.start ASC")
-    List<Booking> findAllByBookerIdCurrent(long bookerId, Pageable pageable);
+    List<Booking> findAllByBookerIdCurrent(long bookerId, LocalDateTime now, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = :bookerId " +
-            "AND b.end < CURRENT_TIMESTAMP " +
+            "AND b.start < :now " +
+            "AND b.end < :now " +
             "ORDER BY b.start DESC")
-    List<Booking> findAllByBookerIdPast(long bookerId, Pageable pageable);
+    List<Booking> findAllByBookerIdPast(long bookerId, LocalDateTime now, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = :bookerId " +
-            "AND b.start > CURRENT_TIMESTAMP " +
+            "AND b.start > :now " +
             "ORDER BY b.start DESC")
-    List<Booking> findAllByBookerIdFuture(long bookerId, Pageable pageable);
+    List<Booking> findAllByBookerIdFuture(long bookerId, LocalDateTime now, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findAllByItemOwnerIdOrderByStartDesc(long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = :ownerId " +
-            "AND b.start < CURRENT_TIMESTAMP " +
-            "AND b.end > CURRENT_TIMESTAMP " +
+            "AND b.start < :now " +
+            "AND b.end > :now " +
             "ORDER BY b.start DESC")
-    List<Booking> findAllByItemOwnerIdCurrentOrderByStartDesc(long ownerId, Pageable pageable);
+    List<Booking> findAllByItemOwnerIdCurrentOrderByStartDesc(long ownerId, LocalDateTime now, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = :ownerId " +
-            "AND b.end < CURRENT_TIMESTAMP " +
+            "AND b.start < :now " +
+            "AND b.end < :now " +
             "ORDER BY b.start DESC")
-    List<Booking> findAllByItemOwnerIdPastOrderByStartDesc(long ownerId, Pageable pageable);
+    List<Booking> findAllByItemOwnerIdPastOrderByStartDesc(long ownerId, LocalDateTime now, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = :ownerId " +
-            "AND b.start > CURRENT_TIMESTAMP " +
+            "AND b.start > :now " +
             "ORDER BY b.start DESC")
-    List<Booking> findAllByItemOwnerIdFutureOrderByStartDesc(long ownerId, Pageable pageable);
+    List<Booking> findAllByItemOwnerIdFutureOrderByStartDesc(long ownerId, LocalDateTime now, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(long ownerId, BookingState status, Pageable pageable);
 
-    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingClosest(b.id, b.booker.id) " +
-            "FROM Booking AS b " +
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdAfterCursor(long bookerId, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.start < :now " +
+            "AND b.end > :now " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdCurrentAfterCursor(long bookerId, LocalDateTime now, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.start < :now " +
+            "AND b.end < :now " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdPastAfterCursor(long bookerId, LocalDateTime now, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.start > :now " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdFutureAfterCursor(long bookerId, LocalDateTime now, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.status = :status " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdAndStatusAfterCursor(long bookerId, BookingState status, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = :ownerId " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByItemOwnerIdAfterCursor(long ownerId, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.start < :now " +
+            "AND b.end > :now " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByItemOwnerIdCurrentAfterCursor(long ownerId, LocalDateTime now, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.start < :now " +
+            "AND b.end < :now " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByItemOwnerIdPastAfterCursor(long ownerId, LocalDateTime now, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.start > :now " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByItemOwnerIdFutureAfterCursor(long ownerId, LocalDateTime now, LocalDateTime start, long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId " +
+            "AND b.status = :status " +
+            "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByItemOwnerIdAndStatusAfterCursor(long ownerId, BookingState status, LocalDateTime start, long id, Pageable pageable);
+
+    /**
+     * The whole booking history of the owner's items read through a database cursor, {@value #EXPORT_FETCH_SIZE}
+     * rows at a time. Has to be consumed inside a transaction and closed; on PostgreSQL the driver only keeps
+     * a cursor open with auto-commit off. The entities are loaded read-only, without snapshots for dirty checking.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH b.booker " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamAllByItemOwnerId(long ownerId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingClosest(b.id, b.booker.id, b.item.id) " +
+            "FROM Booking AS b " +
+            "WHERE b.item.id IN :itemIds " +
             "AND b.status = 'APPROVED' " +
-            "AND b.item.id = :itemId " +
-            "AND b.start > CURRENT_TIMESTAMP " +
-            "ORDER BY b.start ASC ")
-    List<BookingClosest> findNextClosestBookingByOwnerId(long ownerId, long itemId);
+            "AND b.start = (SELECT MIN(n.start) FROM Booking AS n " +
+            "WHERE n.item.id = b.item.id " +
+            "AND n.status = 'APPROVED' " +
+            "AND n.start > :now) " +
+            "ORDER BY b.id ASC ")
+    List<BookingClosest> findNextClosestBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
 
-    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingClosest(b.id, b.booker.id) " +
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingClosest(b.id, b.booker.id, b.item.id) " +
             "FROM Booking AS b " +
-            "WHERE b.item.owner.id = :ownerId " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start = (SELECT MAX(l.start) FROM Booking AS l " +
+            "WHERE l.item.id = b.item.id " +
+            "AND l.status = 'APPROVED' " +
+            "AND l.start < :now) " +
+            "ORDER BY b.id ASC ")
+    List<BookingClosest> findLastClosestBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * Next approved booking of every item as of {@code now}, for rebuilding item booking summaries.
+     */
+    @Query("SELECT b FROM Booking AS b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start = (SELECT MIN(n.start) FROM Booking AS n " +
+            "WHERE n.item.id = b.item.id " +
+            "AND n.status = 'APPROVED' " +
+            "AND n.start > :now)")
+    List<Booking> findAllNextApprovedByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * Last approved booking of every item as of {@code now}, for rebuilding item booking summaries.
+     */
+    @Query("SELECT b FROM Booking AS b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start = (SELECT MAX(l.start) FROM Booking AS l " +
+            "WHERE l.item.id = b.item.id " +
+            "AND l.status = 'APPROVED' " +
+            "AND l.start < :now)")
+    List<Booking> findAllLastApprovedByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN TRUE ELSE FALSE END " +
+            "FROM Booking AS b " +
+            "WHERE b.item.id = :itemId " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start < :end " +
+            "AND b.end > :start " +
+            "AND b.id <> :excludedId")
+    boolean existsApprovedOverlapping(long itemId, LocalDateTime start, LocalDateTime end, long excludedId);
+
+    /**
+     * Approved bookings of the items overlapping the period from {@code start} to {@code end}, for checking
+     * a batch of approvals against them in one select.
+     */
+    @Query("SELECT b FROM Booking AS b " +
+            "WHERE b.item.id IN :itemIds " +
             "AND b.status = 'APPROVED' " +
-            "AND b.item.id = :itemId " +
-            "AND b.start < CURRENT_TIMESTAMP " +
-            "ORDER BY b.start DESC ")
-    List<BookingClosest> findLastClosestBookingByOwnerId(long ownerId, long itemId);
+            "AND b.start < :end " +
+            "AND b.end > :start")
+    List<Booking> findAllApprovedOverlapping(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end);
 
 }
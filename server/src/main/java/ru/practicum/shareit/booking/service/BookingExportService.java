@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.exception.UserNotFoundException;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the booking history of an owner's items row by row as it is read from the database cursor, so memory
+ * stays flat however long the history is. The persistence context is cleared after every fetched batch of rows,
+ * otherwise it would keep every booking read so far.
+ */
+@Service
+@Timed("shareit.service")
+@RequiredArgsConstructor
+public class BookingExportService {
+
+    static final String CSV_HEADER = "id,start,end,status,item_id,item_name,booker_id,booker_name";
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * {@code target} is only opened once the owner is found, so a missing one is still answered as a regular
+     * error rather than as an empty export.
+     */
+    @Transactional(readOnly = true)
+    public void exportOwnerItemsBooked(long userId, BookingExportFormat format, ExportTarget target) throws IOException {
+        if (!userRepository.existsById(userId))
+            throw new UserNotFoundException("User with id " + userId + " not found");
+
+        ObjectWriter jsonWriter = objectMapper.writerFor(BookingDtoResponse.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target.open(), StandardCharsets.UTF_8));
+        if (format == BookingExportFormat.CSV)
+            writer.write(CSV_HEADER + "\n");
+
+        try (Stream<Booking> bookings = bookingRepository.streamAllByItemOwnerId(userId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            int rows = 0;
+            while (iterator.hasNext()) {
+                BookingDtoResponse booking = BookingMapper.toBookingDto(iterator.next());
+                writer.write(format == BookingExportFormat.CSV ? toCsv(booking) : jsonWriter.writeValueAsString(booking));
+                writer.write('\n');
+                if (++rows % BookingRepository.EXPORT_FETCH_SIZE == 0)
+                    entityManager.clear();
+            }
+        }
+        writer.flush();
+    }
+
+    @FunctionalInterface
+    public interface ExportTarget {
+        OutputStream open() throws IOException;
+    }
+
+    private static String toCsv(BookingDtoResponse booking) {
+        return booking.getId() + ","
+                + DATE_TIME_FORMAT.format(booking.getStart()) + ","
+                + DATE_TIME_FORMAT.format(booking.getEnd()) + ","
+                + booking.getStatus() + ","
+                + booking.getItem().getId() + ","
+                + csvField(booking.getItem().getName()) + ","
+                + booking.getBooker().getId() + ","
+                + csvField(booking.getBooker().getName());
+    }
+
+    /**
+     * RFC 4180: a field with a comma, a quote or a line break is quoted, its quotes doubled.
+     */
+    static String csvField(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
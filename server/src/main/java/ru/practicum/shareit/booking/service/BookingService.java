@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.util.pagination.CursorPage;
 
 import java.util.List;
 
@@ -11,10 +13,16 @@ public interface BookingService {
 
     BookingDtoResponse updateBooking(long bookingId, Boolean approved, long userId);
 
+    List<BookingDtoResponse> updateBookings(List<BookingDecisionDto> decisions, long userId);
+
     BookingDtoResponse getBookingById(long bookingId, long userId);
 
     List<BookingDtoResponse> getBookingsByUserByState(String state, long userId, int from, int size);
 
     List<BookingDtoResponse> getOwnerItemsBooked(String state, long userId, int from, int size);
 
+    CursorPage<BookingDtoResponse> getBookingsByUserByStateAfter(String state, long userId, String after, int size);
+
+    CursorPage<BookingDtoResponse> getOwnerItemsBookedAfter(String state, long userId, String after, int size);
+
 }
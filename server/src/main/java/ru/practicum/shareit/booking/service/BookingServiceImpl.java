@@ -1,29 +1,46 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.cache.ItemCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.exception.*;
+import ru.practicum.shareit.util.pagination.CursorPage;
+import ru.practicum.shareit.util.pagination.PageCursor;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed("shareit.service")
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
@@ -31,12 +48,15 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemCache itemCache;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final Clock clock;
 
     @Override
     @Transactional
     public BookingDtoResponse createBooking(BookingDtoRequest bookingDto, long userId) {
         User booker = checkPresenceAndReturnUserOrElseThrow(userId);
-        Item item = checkPresenceAndReturnItemOrElseThrow(bookingDto.getItemId());
+        Item item = lockAndReturnItemOrElseThrow(bookingDto.getItemId());
 
         if (!item.getAvailable())
             throw new ItemNotAvailbaleException("Item with id " + bookingDto.getItemId() + " is NOT AVAILABLE");
@@ -44,30 +64,89 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingNotFoundException("Owner can't book it's own item");
 
         Booking booking = BookingMapper.fromBookingDtoRequest(bookingDto, booker, item);
+        checkNoApprovedOverlap(booking);
         booking.setStatus(BookingState.WAITING);
         booking = bookingRepository.save(booking);
+        itemBookingSummaryService.bookingCreated(booking);
         return BookingMapper.toBookingDto(booking);
     }
 
+    /**
+     * Ownership and status are checked by the conditional update itself: a rejection is the update and
+     * the select of the result, an approval also locks the item first. Only a refused update costs
+     * one more select, to tell why.
+     */
     @Override
     @Transactional
     public BookingDtoResponse updateBooking(long bookingId, Boolean approved, long userId) {
+        int updated;
+        if (approved) {
+            updated = itemRepository.findByBookingIdAndOwnerIdForUpdate(bookingId, userId).isPresent()
+                    ? bookingRepository.approveIfWaitingAndFree(bookingId, userId)
+                    : 0;
+        } else {
+            updated = bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingState.REJECTED);
+        }
+        if (updated == 0)
+            throw refusedDecision(bookingId, approved, userId);
+
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow();
+        itemCache.evictItem(booking.getItem().getId());
+        itemBookingSummaryService.bookingsDecided(List.of(booking));
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    /**
+     * Decides all bookings or none: one select checks ownership and status of the whole batch, the items of
+     * the approvals are locked together, and the new statuses are flushed as one JDBC batch. The version
+     * check of every batched update refuses bookings decided meanwhile by another request.
+     */
+    @Override
+    @Transactional
+    public List<BookingDtoResponse> updateBookings(List<BookingDecisionDto> decisions, long userId) {
         checkPresenceAndReturnUserOrElseThrow(userId);
-        Booking booking = checkPresenceAndReturnBookingOrElseThrow(bookingId);
+        Map<Long, Boolean> approvals = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (approvals.put(decision.getBookingId(), decision.getApproved()) != null)
+                throw new DuplicateBookingDecisionException("Booking with id " + decision.getBookingId()
+                        + " is decided more than once");
+        }
 
-        if (booking.getItem().getOwner().getId() != userId)
-            throw new AccessDenyException("User with id " + userId + " is not the owner of item");
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(approvals.keySet()).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<Booking> decided = new ArrayList<>(approvals.size());
+        List<Booking> approved = new ArrayList<>();
+        for (Map.Entry<Long, Boolean> approval : approvals.entrySet()) {
+            Booking booking = bookings.get(approval.getKey());
+            if (booking == null)
+                throw new BookingNotFoundException("Booking with id " + approval.getKey() + " not found");
+            if (booking.getItem().getOwner().getId() != userId)
+                throw new AccessDenyException("User with id " + userId + " is not the owner of item");
+            if (booking.getStatus() != BookingState.WAITING)
+                throw new UnsupportedStateException("Booking status has already been changed.");
+            decided.add(booking);
+            if (approval.getValue())
+                approved.add(booking);
+        }
 
-        if ((String.valueOf(booking.getStatus()).equals("APPROVED") && approved)
-                || (String.valueOf(booking.getStatus()).equals("REJECTED") && !approved))
-            throw new UnsupportedStateException("Booking status has already been changed.");
+        if (!approved.isEmpty()) {
+            Set<Long> itemIds = approved.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet());
+            itemRepository.findAllByIdInForUpdate(itemIds);
+            checkNoApprovedOverlap(itemIds, approved);
+        }
 
+        for (Booking booking : decided) {
+            booking.setStatus(approvals.get(booking.getId()) ? BookingState.APPROVED : BookingState.REJECTED);
+        }
+        try {
+            bookingRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new UnsupportedStateException("Booking status has already been changed.");
+        }
 
-        bookingRepository.updateBookingStatusById(bookingId, approved);
-        BookingDtoResponse dto = BookingMapper.toBookingDto((Objects.requireNonNull(bookingRepository.findById(bookingId).orElse(null))));
-        if (approved) dto.setStatus(String.valueOf(BookingState.APPROVED));
-        else dto.setStatus(String.valueOf(BookingState.REJECTED));
-        return dto;
+        itemBookingSummaryService.bookingsDecided(decided);
+        decided.stream().map(booking -> booking.getItem().getId()).distinct().forEach(itemCache::evictItem);
+        return BookingMapper.toBookingDto(decided);
     }
 
     @Override
@@ -86,6 +165,7 @@ public class BookingServiceImpl implements BookingService {
     @Transactional(readOnly = true)
     public List<BookingDtoResponse> getBookingsByUserByState(String state, long userId, int from, int size) {
         Pageable page = PageRequest.of(from / size, size, Sort.by("start").descending());
+        LocalDateTime now = LocalDateTime.now(clock);
         checkPresenceAndReturnUserOrElseThrow(userId);
 
         List<Booking> bookings;
@@ -95,13 +175,13 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(userId, page);
                 break;
             case "CURRENT":
-                bookings = bookingRepository.findAllByBookerIdCurrent(userId, page);
+                bookings = bookingRepository.findAllByBookerIdCurrent(userId, now, page);
                 break;
             case "PAST":
-                bookings = bookingRepository.findAllByBookerIdPast(userId, page);
+                bookings = bookingRepository.findAllByBookerIdPast(userId, now, page);
                 break;
             case "FUTURE":
-                bookings = bookingRepository.findAllByBookerIdFuture(userId, page);
+                bookings = bookingRepository.findAllByBookerIdFuture(userId, now, page);
                 break;
             case "WAITING":
             case "REJECTED":
@@ -118,6 +198,7 @@ public class BookingServiceImpl implements BookingService {
     @Transactional(readOnly = true)
     public List<BookingDtoResponse> getOwnerItemsBooked(String state, long userId, int from, int size) {
         Pageable page = PageRequest.of(from / size, size, Sort.by("start").descending());
+        LocalDateTime now = LocalDateTime.now(clock);
         checkPresenceAndReturnUserOrElseThrow(userId);
 
         List<Booking> bookings;
@@ -127,13 +208,13 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findAllByItemOwnerIdOrderByStartDesc(userId, page);
                 break;
             case "CURRENT":
-                bookings = bookingRepository.findAllByItemOwnerIdCurrentOrderByStartDesc(userId, page);
+                bookings = bookingRepository.findAllByItemOwnerIdCurrentOrderByStartDesc(userId, now, page);
                 break;
             case "FUTURE":
-                bookings = bookingRepository.findAllByItemOwnerIdFutureOrderByStartDesc(userId, page);
+                bookings = bookingRepository.findAllByItemOwnerIdFutureOrderByStartDesc(userId, now, page);
                 break;
             case "PAST":
-                bookings = bookingRepository.findAllByItemOwnerIdPastOrderByStartDesc(userId, page);
+                bookings = bookingRepository.findAllByItemOwnerIdPastOrderByStartDesc(userId, now, page);
                 break;
             case "WAITING":
             case "REJECTED":
@@ -146,16 +227,148 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingDto(bookings);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookingDtoResponse> getBookingsByUserByStateAfter(String state, long userId, String after, int size) {
+        PageCursor cursor = PageCursor.decode(after);
+        LocalDateTime start = cursor.getLocalDateTimeOrMax();
+        long id = cursor.getIdOrMax();
+        Pageable page = PageRequest.of(0, size);
+        LocalDateTime now = LocalDateTime.now(clock);
+        checkPresenceAndReturnUserOrElseThrow(userId);
+
+        List<Booking> bookings;
+
+        switch (state) {
+            case "ALL":
+                bookings = bookingRepository.findAllByBookerIdAfterCursor(userId, start, id, page);
+                break;
+            case "CURRENT":
+                bookings = bookingRepository.findAllByBookerIdCurrentAfterCursor(userId, now, start, id, page);
+                break;
+            case "PAST":
+                bookings = bookingRepository.findAllByBookerIdPastAfterCursor(userId, now, start, id, page);
+                break;
+            case "FUTURE":
+                bookings = bookingRepository.findAllByBookerIdFutureAfterCursor(userId, now, start, id, page);
+                break;
+            case "WAITING":
+            case "REJECTED":
+                bookings = bookingRepository.findAllByBookerIdAndStatusAfterCursor(userId, BookingState.valueOf(state), start, id, page);
+                break;
+            default:
+                throw new UnsupportedStateException("Unknown state: " + state);
+        }
+
+        return toCursorPage(bookings, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookingDtoResponse> getOwnerItemsBookedAfter(String state, long userId, String after, int size) {
+        PageCursor cursor = PageCursor.decode(after);
+        LocalDateTime start = cursor.getLocalDateTimeOrMax();
+        long id = cursor.getIdOrMax();
+        Pageable page = PageRequest.of(0, size);
+        LocalDateTime now = LocalDateTime.now(clock);
+        checkPresenceAndReturnUserOrElseThrow(userId);
+
+        List<Booking> bookings;
+
+        switch (state) {
+            case "ALL":
+                bookings = bookingRepository.findAllByItemOwnerIdAfterCursor(userId, start, id, page);
+                break;
+            case "CURRENT":
+                bookings = bookingRepository.findAllByItemOwnerIdCurrentAfterCursor(userId, now, start, id, page);
+                break;
+            case "PAST":
+                bookings = bookingRepository.findAllByItemOwnerIdPastAfterCursor(userId, now, start, id, page);
+                break;
+            case "FUTURE":
+                bookings = bookingRepository.findAllByItemOwnerIdFutureAfterCursor(userId, now, start, id, page);
+                break;
+            case "WAITING":
+            case "REJECTED":
+                bookings = bookingRepository.findAllByItemOwnerIdAndStatusAfterCursor(userId, BookingState.valueOf(state), start, id, page);
+                break;
+            default:
+                throw new UnsupportedStateException("Unknown state: " + state);
+        }
+
+        return toCursorPage(bookings, size);
+    }
+
+    private CursorPage<BookingDtoResponse> toCursorPage(List<Booking> bookings, int size) {
+        String next = null;
+        if (bookings.size() == size) {
+            Booking last = bookings.get(bookings.size() - 1);
+            next = PageCursor.of(last.getStart(), last.getId()).encode();
+        }
+        return new CursorPage<>(BookingMapper.toBookingDto(bookings), next);
+    }
+
     private User checkPresenceAndReturnUserOrElseThrow(long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User with id " + userId + " not found"));
     }
 
-    private Item checkPresenceAndReturnItemOrElseThrow(long itemId) {
-        return itemRepository.findById(itemId)
+    private Item lockAndReturnItemOrElseThrow(long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
                 .orElseThrow(() -> new ItemNotFoundException(("Item with id " + itemId + " not found")));
     }
 
+    /**
+     * Only approved bookings hold the item, waiting ones may overlap until the owner picks one.
+     * Callers lock the item first, so two overlapping bookings can't both pass this check.
+     */
+    private void checkNoApprovedOverlap(Booking booking) {
+        if (bookingRepository.existsApprovedOverlapping(
+                booking.getItem().getId(), booking.getStart(), booking.getEnd(), booking.getId())) {
+            throw new BookingConflictException("Item with id " + booking.getItem().getId()
+                    + " is already booked from " + booking.getStart() + " to " + booking.getEnd());
+        }
+    }
+
+    /**
+     * The batch version of the check above: the approvals are checked against the approved bookings of their
+     * items and against each other.
+     */
+    private void checkNoApprovedOverlap(Collection<Long> itemIds, List<Booking> approved) {
+        LocalDateTime start = approved.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime end = approved.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<Booking>> taken = bookingRepository.findAllApprovedOverlapping(itemIds, start, end).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+
+        for (Booking booking : approved) {
+            List<Booking> itemBookings = taken.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>());
+            for (Booking other : itemBookings) {
+                if (booking.getStart().isBefore(other.getEnd()) && other.getStart().isBefore(booking.getEnd())) {
+                    throw new BookingConflictException("Item with id " + booking.getItem().getId()
+                            + " is already booked from " + booking.getStart() + " to " + booking.getEnd());
+                }
+            }
+            itemBookings.add(booking);
+        }
+    }
+
+    /**
+     * Why the conditional update of {@link #updateBooking} changed nothing, in the order the checks used to run.
+     */
+    private RuntimeException refusedDecision(long bookingId, boolean approved, long userId) {
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId).orElse(null);
+        if (booking == null || booking.getItem().getOwner().getId() != userId)
+            checkPresenceAndReturnUserOrElseThrow(userId);
+        if (booking == null)
+            return new BookingNotFoundException("Booking with id " + bookingId + " not found");
+        if (booking.getItem().getOwner().getId() != userId)
+            return new AccessDenyException("User with id " + userId + " is not the owner of item");
+        if (booking.getStatus() == BookingState.WAITING && approved)
+            return new BookingConflictException("Item with id " + booking.getItem().getId()
+                    + " is already booked from " + booking.getStart() + " to " + booking.getEnd());
+        return new UnsupportedStateException("Booking status has already been changed.");
+    }
+
     private Booking checkPresenceAndReturnBookingOrElseThrow(long bookingId) {
         return bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking with id " + bookingId + " not found"));
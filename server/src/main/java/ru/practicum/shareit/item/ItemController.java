@@ -2,13 +2,20 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.util.pagination.CursorPage;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -19,6 +26,7 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
     @PostMapping
     public ItemDto createItem(
@@ -31,6 +39,17 @@ public class ItemController {
         return response;
     }
 
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportResult importItems(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            InputStream ndjson
+    ) throws IOException {
+        log.info("POST request received for item import of owner {}", ownerId);
+        ItemImportResult response = itemImportService.importItems(ownerId, ndjson);
+        log.info("Items imported: {}, failed: {}", response.getImported(), response.getFailed());
+        return response;
+    }
+
     @GetMapping("/{itemId}")
     public ItemDto getItemById(
             @PathVariable long itemId,
@@ -54,6 +73,18 @@ public class ItemController {
         return response;
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<List<ItemDto>> getItemsByOwnerIdAfter(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam String after,
+            @RequestParam int size
+    ) {
+        log.info("GET request received for items with owner id {} after cursor \"{}\"", ownerId, after);
+        CursorPage<ItemDto> response = itemService.getItemsByOwnerIdAfter(ownerId, after, size);
+        log.info("{}", response.getContent());
+        return response.toResponseEntity();
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(
             @PathVariable long itemId,
@@ -78,6 +109,18 @@ public class ItemController {
         return response;
     }
 
+    @GetMapping(path = "/search", params = "after")
+    public ResponseEntity<List<ItemDto>> searchItemsAfter(
+            @RequestParam String text,
+            @RequestParam String after,
+            @RequestParam int size
+    ) {
+        log.info("GET request received for query \"{}\" after cursor \"{}\"", text, after);
+        CursorPage<ItemDto> response = itemService.searchItemsAfter(text.toLowerCase(), after, size);
+        log.info("{}", response.getContent());
+        return response.toResponseEntity();
+    }
+
     @DeleteMapping("/{itemId}")
     public void deleteItem(
             @PathVariable long itemId
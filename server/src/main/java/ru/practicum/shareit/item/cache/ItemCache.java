@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Read-through cache of single item views and of their comment lists, keyed by item id.
+ * Size and lifetime of the entries are set by {@code spring.cache.caffeine.spec}; the lifetime also bounds
+ * how long next/last bookings of a cached view may lag behind the clock.
+ * Evictions are deferred until the surrounding transaction commits, so a reader can't load the old rows back
+ * in between.
+ */
+@Component
+public class ItemCache {
+
+    public static final String ITEMS = "items";
+    public static final String ITEM_COMMENTS = "itemComments";
+
+    private final Cache items;
+    private final Cache comments;
+
+    public ItemCache(CacheManager cacheManager) {
+        this.items = new TransactionAwareCacheDecorator(Objects.requireNonNull(cacheManager.getCache(ITEMS)));
+        this.comments = new TransactionAwareCacheDecorator(Objects.requireNonNull(cacheManager.getCache(ITEM_COMMENTS)));
+    }
+
+    /**
+     * Owner's view of the item: with comments and next/last bookings.
+     */
+    public ItemDto getItem(long itemId, Callable<ItemDto> loader) {
+        return get(items, itemId, loader);
+    }
+
+    public List<CommentResponseDto> getComments(long itemId, Callable<List<CommentResponseDto>> loader) {
+        return get(comments, itemId, loader);
+    }
+
+    /**
+     * Item fields or its bookings changed.
+     */
+    public void evictItem(long itemId) {
+        items.evict(itemId);
+    }
+
+    /**
+     * Comments of the item changed, so did the views holding them.
+     */
+    public void evictComments(long itemId) {
+        comments.evict(itemId);
+        items.evict(itemId);
+    }
+
+    /**
+     * For changes which can touch any item, e.g. a renamed comment author.
+     */
+    public void clear() {
+        comments.clear();
+        items.clear();
+    }
+
+    private static <T> T get(Cache cache, long itemId, Callable<T> loader) {
+        try {
+            return cache.get(itemId, loader);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+
+@Getter
+@Setter
+public class CommentInfo {
+    private long id;
+    private String text;
+    private String authorName;
+    private ZonedDateTime created;
+    private long itemId;
+
+    public CommentInfo(long id, String text, String authorName, ZonedDateTime created, long itemId) {
+        this.id = id;
+        this.text = text;
+        this.authorName = authorName;
+        this.created = created;
+        this.itemId = itemId;
+    }
+}
@@ -6,17 +6,20 @@ import ru.practicum.shareit.booking.dto.BookingClosest;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ItemDto {
     private long id;
     @NotNull
     @NotBlank
+    @Size(max = 255)
     private String name;
     @NotNull
     @NotBlank
+    @Size(max = 512)
     private String description;
     @NotNull
     private Boolean available;
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ItemImportResult {
+    private int imported;
+    private int failed;
+    /**
+     * Errors of the first failed rows, the rest are only counted in {@code failed}.
+     */
+    private List<ItemImportError> errors;
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.item.dto.CommentInfo;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.model.Comment;
@@ -12,6 +13,8 @@ import java.util.stream.Collectors;
 @UtilityClass
 public class CommentMapper {
 
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
     public static Comment fromCommentRequestDto(CommentRequestDto commentDto) {
         Comment comment = new Comment();
         comment.setText(commentDto.getText());
@@ -19,9 +22,7 @@ public class CommentMapper {
     }
 
     public static CommentResponseDto toCommentResponseDto(Comment comment) {
-        String created = DateTimeFormatter
-                .ofPattern("yyyy-MM-dd'T'HH:mm:ss")
-                .format(comment.getCreated());
+        String created = DATE_TIME_FORMATTER.format(comment.getCreated());
 
         return CommentResponseDto.builder()
                 .id(comment.getId())
@@ -31,7 +32,18 @@ public class CommentMapper {
                 .build();
     }
 
-    public static List<CommentResponseDto> toCommentResponseDto(List<Comment> comments) {
+    public static CommentResponseDto toCommentResponseDto(CommentInfo comment) {
+        String created = DATE_TIME_FORMATTER.format(comment.getCreated());
+
+        return CommentResponseDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .created(created)
+                .build();
+    }
+
+    public static List<CommentResponseDto> toCommentResponseDto(List<CommentInfo> comments) {
         return comments.stream()
                 .map(CommentMapper::toCommentResponseDto)
                 .collect(Collectors.toList());
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.domain.Persistable;
+import ru.practicum.shareit.booking.dto.BookingClosest;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+
+/**
+ * What the owner's view of an item needs from its bookings and comments, kept up to date as they change.
+ * The row stays right until its next booking starts; from then on it is stale until rebuilt.
+ * Updates write only the changed columns, so the counters changed by single statements elsewhere
+ * are never overwritten with an older value.
+ */
+@Data
+@Entity
+@DynamicUpdate
+@NoArgsConstructor
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary implements Persistable<Long> {
+    @Id
+    private Long itemId;
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Item item;
+    private Long lastBookingId;
+    private Long lastBookerId;
+    @Column(name = "last_start_date")
+    private LocalDateTime lastStart;
+    private Long nextBookingId;
+    private Long nextBookerId;
+    @Column(name = "next_start_date")
+    private LocalDateTime nextStart;
+    private long totalBookings;
+    private ZonedDateTime lastCommentCreated;
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean isNew = true;
+
+    public ItemBookingSummary(Item item) {
+        this.item = item;
+    }
+
+    @Override
+    public Long getId() {
+        return itemId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    public boolean isFreshAt(LocalDateTime now) {
+        return nextStart == null || nextStart.isAfter(now);
+    }
+
+    public BookingClosest getLastBooking() {
+        return lastBookingId != null ? new BookingClosest(lastBookingId, lastBookerId, itemId) : null;
+    }
+
+    public BookingClosest getNextBooking() {
+        return nextBookingId != null ? new BookingClosest(nextBookingId, nextBookerId, itemId) : null;
+    }
+
+    public void setLastBooking(Booking booking) {
+        lastBookingId = booking != null ? booking.getId() : null;
+        lastBookerId = booking != null ? booking.getBooker().getId() : null;
+        lastStart = booking != null ? booking.getStart() : null;
+    }
+
+    public void setNextBooking(Booking booking) {
+        nextBookingId = booking != null ? booking.getId() : null;
+        nextBookerId = booking != null ? booking.getBooker().getId() : null;
+        nextStart = booking != null ? booking.getStart() : null;
+    }
+
+    /**
+     * Takes in a booking just approved. The row must be fresh at {@code now}.
+     */
+    public void placeApproved(Booking booking, LocalDateTime now) {
+        if (booking.getStart().isAfter(now)) {
+            if (nextStart == null || booking.getStart().isBefore(nextStart))
+                setNextBooking(booking);
+        } else if (booking.getStart().isBefore(now)) {
+            if (lastStart == null || booking.getStart().isAfter(lastStart))
+                setLastBooking(booking);
+        }
+    }
+}
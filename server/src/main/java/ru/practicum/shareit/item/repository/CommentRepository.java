@@ -1,12 +1,21 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.CommentInfo;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(long itemId);
+    @Query("SELECT new ru.practicum.shareit.item.dto.CommentInfo(c.id, c.text, c.author.name, c.created, c.item.id) " +
+            "FROM Comment AS c " +
+            "WHERE c.item.id = :itemId")
+    List<CommentInfo> findAllInfoByItemId(long itemId);
 
-    List<Comment> findAllByItemIdIn(List<Long> ids);
+    @Query("SELECT new ru.practicum.shareit.item.dto.CommentInfo(c.id, c.text, c.author.name, c.created, c.item.id) " +
+            "FROM Comment AS c " +
+            "WHERE c.item.id IN :ids")
+    List<CommentInfo> findAllInfoByItemIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The counters are changed by single statements, without reading the row first, so the writers don't have to
+ * lock the item; last/next bookings are only changed with the item locked.
+ */
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Query("SELECT s FROM ItemBookingSummary AS s WHERE s.itemId IN :itemIds")
+    List<ItemBookingSummary> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @Query("SELECT s.itemId FROM ItemBookingSummary AS s " +
+            "WHERE s.nextStart <= :now " +
+            "ORDER BY s.itemId")
+    List<Long> findStaleItemIds(LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ItemBookingSummary s SET " +
+            "s.totalBookings = s.totalBookings + 1 " +
+            "WHERE s.itemId = :itemId")
+    void incrementTotalBookings(long itemId);
+
+    /**
+     * Takes the rejected bookings off the totals of their items, all items in one statement.
+     */
+    @Modifying
+    @Query("UPDATE ItemBookingSummary s SET " +
+            "s.totalBookings = s.totalBookings - (SELECT COUNT(b) FROM Booking AS b " +
+            "WHERE b.id IN :bookingIds " +
+            "AND b.item.id = s.itemId) " +
+            "WHERE s.itemId IN :itemIds")
+    void subtractRejectedBookings(Collection<Long> itemIds, Collection<Long> bookingIds);
+
+    @Modifying
+    @Query("UPDATE ItemBookingSummary s SET " +
+            "s.lastCommentCreated = :created " +
+            "WHERE s.itemId = :itemId " +
+            "AND (s.lastCommentCreated IS NULL OR s.lastCommentCreated < :created)")
+    void updateLastCommentCreated(long itemId, ZonedDateTime created);
+
+    /**
+     * Counts the bookings and finds the last comment of the items again, from scratch. Rows already loaded keep
+     * their old counters in memory, which is harmless as long as nothing sets them.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingSummary s SET " +
+            "s.totalBookings = (SELECT COUNT(b) FROM Booking AS b " +
+            "WHERE b.item.id = s.itemId " +
+            "AND b.status <> 'REJECTED'), " +
+            "s.lastCommentCreated = (SELECT MAX(c.created) FROM Comment AS c " +
+            "WHERE c.item.id = s.itemId) " +
+            "WHERE s.itemId IN :itemIds")
+    void recountByItemIdIn(Collection<Long> itemIds);
+}
@@ -2,16 +2,48 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.dto.ItemResponseForRequest;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerIdOrderById(long ownerId, Pageable pageable);
 
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderById(long ownerId, long id, Pageable pageable);
+
+    List<Item> findAllByIdGreaterThanOrderById(long id, Pageable pageable);
+
+    /**
+     * Locks the item row until the end of the transaction, so bookings of one item are decided one at a time
+     * while bookings of other items go on in parallel.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT it FROM Item it WHERE it.id = :itemId")
+    Optional<Item> findByIdForUpdate(long itemId);
+
+    /**
+     * Locks the item of the booking like {@link #findByIdForUpdate}, if the item belongs to {@code ownerId}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT it FROM Item it " +
+            "WHERE it.owner.id = :ownerId " +
+            "AND it.id = (SELECT b.item.id FROM Booking AS b WHERE b.id = :bookingId)")
+    Optional<Item> findByBookingIdAndOwnerIdForUpdate(long bookingId, long ownerId);
+
+    /**
+     * Locks several items in the order of their ids, so two transactions locking overlapping sets can't deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT it FROM Item it WHERE it.id IN :itemIds ORDER BY it.id")
+    List<Item> findAllByIdInForUpdate(Collection<Long> itemIds);
+
     @Modifying
     @Query("UPDATE Item e SET " +
             "e.name = CASE WHEN :#{#item.name} IS NOT NULL THEN :#{#item.name} ELSE e.name END, " +
@@ -26,9 +58,38 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "AND it.available = true ")
     List<Item> searchItemByNameOrDescription(String text, Pageable pageable);
 
+    @Query("SELECT it FROM Item it " +
+            "WHERE (LOWER(it.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
+            "OR LOWER(it.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+            "AND it.available = true " +
+            "AND it.id > :afterId " +
+            "ORDER BY it.id")
+    List<Item> searchItemByNameOrDescriptionAfter(String text, long afterId, Pageable pageable);
+
+    @Query(value = "SELECT * FROM items AS it " +
+            "WHERE (it.name ILIKE CONCAT('%', :text, '%') " +
+            "OR it.description ILIKE CONCAT('%', :text, '%')) " +
+            "AND it.is_available = TRUE ",
+            nativeQuery = true)
+    List<Item> searchAvailableItemsByNameOrDescription(String text, Pageable pageable);
+
+    @Query(value = "SELECT * FROM items AS it " +
+            "WHERE (it.name ILIKE CONCAT('%', :text, '%') " +
+            "OR it.description ILIKE CONCAT('%', :text, '%')) " +
+            "AND it.is_available = TRUE " +
+            "AND it.id > :afterId " +
+            "ORDER BY it.id",
+            nativeQuery = true)
+    List<Item> searchAvailableItemsByNameOrDescriptionAfter(String text, long afterId, Pageable pageable);
+
     @Query("SELECT new ru.practicum.shareit.item.dto.ItemResponseForRequest(i.id, i.name, i.description, i.available, i.request.id) " +
             "FROM Item AS i " +
             "WHERE i.request.id = :requestId ")
     List<ItemResponseForRequest> getItemDescriptionForRequest(long requestId);
 
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemResponseForRequest(i.id, i.name, i.description, i.available, i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.request.id IN :requestIds ")
+    List<ItemResponseForRequest> getItemDescriptionForRequests(Collection<Long> requestIds);
+
 }
@@ -0,0 +1,199 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the words of available items' names and descriptions.
+ * Every word of the query has to be a prefix of some word of the item, so "дрел" finds "Дрель",
+ * but unlike the SQL engines a fragment from the middle of a word does not match.
+ * Only the matching page of items is then loaded from the database by id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final NavigableMap<String, LongPostings> postings = new TreeMap<>();
+    private final Map<Long, String[]> tokensByItemId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            tokensByItemId.clear();
+            long lastId = 0;
+            List<Item> batch;
+            do {
+                batch = itemRepository.findAllByIdGreaterThanOrderById(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Item item : batch) {
+                    doIndex(item);
+                    lastId = item.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            log.info("Item search index rebuilt: {} items, {} words", tokensByItemId.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return loadItems(findIds(text, 0, (int) pageable.getOffset(), pageable.getPageSize()));
+    }
+
+    @Override
+    public List<Item> searchAfter(String text, long afterId, int limit) {
+        return loadItems(findIds(text, afterId, 0, limit));
+    }
+
+    @Override
+    public void index(Item item) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                doRemove(item.getId());
+                doIndex(item);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void remove(long itemId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                doRemove(itemId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Same as {@link org.springframework.cache.transaction.TransactionAwareCacheDecorator}: inside a transaction
+     * the change is applied only once it commits, so a rollback leaves no words in the index the database never saw.
+     */
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private List<Item> loadItems(List<Long> ids) {
+        if (ids.isEmpty()) return Collections.emptyList();
+
+        List<Item> items = new ArrayList<>(itemRepository.findAllById(ids));
+        items.sort(Comparator.comparingLong(Item::getId));
+        return items;
+    }
+
+    private List<Long> findIds(String text, long afterId, int offset, int limit) {
+        Set<String> queryTokens = tokenize(text);
+        if (queryTokens.isEmpty()) return Collections.emptyList();
+
+        LongPostings matches = null;
+        lock.readLock().lock();
+        try {
+            for (String token : queryTokens) {
+                LongPostings tokenMatches = LongPostings.unionAll(
+                        postings.subMap(token, true, token + Character.MAX_VALUE, true).values());
+                matches = matches == null ? tokenMatches : matches.intersect(tokenMatches);
+                if (matches.isEmpty()) return Collections.emptyList();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int from = matches.indexAfter(afterId) + offset;
+        List<Long> page = new ArrayList<>(Math.max(Math.min(limit, matches.size() - from), 0));
+        for (int i = from; i < matches.size() && page.size() < limit; i++) {
+            page.add(matches.get(i));
+        }
+        return page;
+    }
+
+    private void doIndex(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) return;
+
+        Set<String> tokens = tokenize(item.getName());
+        tokens.addAll(tokenize(item.getDescription()));
+        String[] itemTokens = new String[tokens.size()];
+        int i = 0;
+        for (String token : tokens) {
+            String key = postings.ceilingKey(token);
+            if (!token.equals(key)) {
+                postings.put(token, new LongPostings());
+                key = token;
+            }
+            postings.get(key).add(item.getId());
+            itemTokens[i++] = key;
+        }
+        tokensByItemId.put(item.getId(), itemTokens);
+    }
+
+    private void doRemove(long itemId) {
+        String[] tokens = tokensByItemId.remove(itemId);
+        if (tokens == null) return;
+
+        for (String token : tokens) {
+            LongPostings p = postings.get(token);
+            p.remove(itemId);
+            if (p.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) return tokens;
+
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Backend for {@code GET /items/search}: finds available items whose name or description
+ * contains the given text. The implementation is selected with {@code shareit.item.search.engine}.
+ */
+public interface ItemSearchEngine {
+    List<Item> search(String text, Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #search}: up to {@code limit} matches with id greater than {@code afterId}, in id order.
+     */
+    List<Item> searchAfter(String text, long afterId, int limit);
+
+    /**
+     * Called after an item has been created or updated, possibly inside the transaction which saves it.
+     * Engines backed by the database ignore it; an engine keeping its own index applies it once that transaction commits.
+     */
+    default void index(Item item) {
+    }
+
+    /**
+     * Called after an item has been deleted, with the same transaction semantics as {@link #index}.
+     */
+    default void remove(long itemId) {
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Portable JPQL {@code LOWER(..) LIKE '%text%'} search. Always scans the whole table.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.engine", havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.searchItemByNameOrDescription(text, pageable);
+    }
+
+    @Override
+    public List<Item> searchAfter(String text, long afterId, int limit) {
+        return itemRepository.searchItemByNameOrDescriptionAfter(text, afterId, PageRequest.of(0, limit));
+    }
+}
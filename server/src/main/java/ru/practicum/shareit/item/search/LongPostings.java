@@ -0,0 +1,115 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Sorted set of item ids kept in a primitive array.
+ */
+class LongPostings {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids;
+    private int size;
+
+    LongPostings() {
+        this.ids = new long[4];
+    }
+
+    private LongPostings(long[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    static LongPostings of(long... ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        return new LongPostings(sorted, sorted.length);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Position of the first id greater than {@code id}.
+     */
+    int indexAfter(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    void add(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) return;
+        pos = -pos - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) return;
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        if (size < ids.length >> 2 && ids.length > 4) {
+            ids = Arrays.copyOf(ids, Math.max(size << 1, 4));
+        }
+    }
+
+    /**
+     * Union of all the given sets in one pass: their ids are copied into one buffer, sorted and deduplicated.
+     */
+    static LongPostings unionAll(Collection<LongPostings> all) {
+        int total = 0;
+        for (LongPostings p : all) {
+            total += p.size;
+        }
+        if (total == 0) return new LongPostings(EMPTY, 0);
+
+        long[] result = new long[total];
+        int k = 0;
+        for (LongPostings p : all) {
+            System.arraycopy(p.ids, 0, result, k, p.size);
+            k += p.size;
+        }
+        Arrays.sort(result);
+        int size = 1;
+        for (int i = 1; i < total; i++) {
+            if (result[i] != result[size - 1]) {
+                result[size++] = result[i];
+            }
+        }
+        return new LongPostings(result, size);
+    }
+
+    LongPostings intersect(LongPostings other) {
+        long[] result = new long[Math.min(size, other.size)];
+        int i = 0, j = 0, k = 0;
+        while (i < size && j < other.size) {
+            long a = ids[i], b = other.ids[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                result[k++] = a;
+                i++;
+                j++;
+            }
+        }
+        return new LongPostings(k == 0 ? EMPTY : result, k);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * {@code ILIKE '%text%'} search. On PostgreSQL it is served by the {@code pg_trgm} GIN indexes
+ * from {@code db/migration/postgresql/V3__item_search_trigram_indexes.sql}; on H2 the same query runs without them.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.engine", havingValue = "trigram")
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.searchAvailableItemsByNameOrDescription(text, pageable);
+    }
+
+    @Override
+    public List<Item> searchAfter(String text, long afterId, int limit) {
+        return itemRepository.searchAvailableItemsByNameOrDescriptionAfter(text, afterId, PageRequest.of(0, limit));
+    }
+}
@@ -0,0 +1,180 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingClosest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link ItemBookingSummary} rows in step with bookings and comments, so item views read last/next
+ * bookings by primary key instead of searching the bookings of every item.
+ * Bookings change a row as they are created and decided; once the next booking of a row starts, the row is
+ * stale until {@link ItemBookingSummarySweeper} rebuilds it. Views never show a stale or missing row, they fall
+ * back to the bookings for those items.
+ */
+@Service
+@Timed("shareit.service")
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ItemBookingSummaryService {
+
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemCache itemCache;
+    private final Clock clock;
+
+    @Transactional
+    public void itemsCreated(Collection<Item> items) {
+        itemBookingSummaryRepository.saveAll(items.stream()
+                .map(ItemBookingSummary::new)
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional
+    public void bookingCreated(Booking booking) {
+        itemBookingSummaryRepository.incrementTotalBookings(booking.getItem().getId());
+    }
+
+    /**
+     * Callers lock the items of the approved bookings first, the same as for deciding them.
+     * A row gone stale meanwhile is rebuilt rather than updated.
+     */
+    @Transactional
+    public void bookingsDecided(Collection<Booking> bookings) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Set<Long> rejectedItemIds = new TreeSet<>();
+        Set<Long> rejectedIds = new TreeSet<>();
+        Map<Long, List<Booking>> approvedByItemId = new HashMap<>();
+        for (Booking booking : bookings) {
+            if (booking.getStatus() == BookingState.REJECTED) {
+                rejectedItemIds.add(booking.getItem().getId());
+                rejectedIds.add(booking.getId());
+            } else if (booking.getStatus() == BookingState.APPROVED) {
+                approvedByItemId.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>()).add(booking);
+            }
+        }
+
+        if (!rejectedIds.isEmpty())
+            itemBookingSummaryRepository.subtractRejectedBookings(rejectedItemIds, rejectedIds);
+        if (approvedByItemId.isEmpty())
+            return;
+
+        Set<Long> stale = new TreeSet<>();
+        for (ItemBookingSummary summary : itemBookingSummaryRepository.findAllByItemIdIn(approvedByItemId.keySet())) {
+            if (!summary.isFreshAt(now)) {
+                stale.add(summary.getItemId());
+                continue;
+            }
+            approvedByItemId.get(summary.getItemId()).forEach(booking -> summary.placeApproved(booking, now));
+        }
+        if (!stale.isEmpty())
+            rebuild(stale);
+    }
+
+    @Transactional
+    public void commentAdded(Comment comment) {
+        itemBookingSummaryRepository.updateLastCommentCreated(comment.getItem().getId(), comment.getCreated());
+    }
+
+    /**
+     * Sets last/next bookings of the owner's view of the items.
+     */
+    public void setClosestBookings(List<ItemDto> itemDtos) {
+        if (itemDtos.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Long> ids = itemDtos.stream().map(ItemDto::getId).collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryRepository.findAllByItemIdIn(ids).stream()
+                .filter(summary -> summary.isFreshAt(now))
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+
+        List<Long> missing = ids.stream().filter(id -> !summaries.containsKey(id)).collect(Collectors.toList());
+        Map<Long, BookingClosest> nextBookings = Collections.emptyMap();
+        Map<Long, BookingClosest> lastBookings = Collections.emptyMap();
+        if (!missing.isEmpty()) {
+            nextBookings = mapByItemId(bookingRepository.findNextClosestBookingsByItemIds(missing, now));
+            lastBookings = mapByItemId(bookingRepository.findLastClosestBookingsByItemIds(missing, now));
+        }
+
+        for (ItemDto itemDto : itemDtos) {
+            ItemBookingSummary summary = summaries.get(itemDto.getId());
+            if (summary != null) {
+                itemDto.setNextBooking(summary.getNextBooking());
+                itemDto.setLastBooking(summary.getLastBooking());
+            } else {
+                itemDto.setNextBooking(nextBookings.get(itemDto.getId()));
+                itemDto.setLastBooking(lastBookings.get(itemDto.getId()));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds up to {@code limit} rows whose next booking has started, returns how many.
+     */
+    @Transactional
+    public int rebuildStale(int limit) {
+        List<Long> stale = itemBookingSummaryRepository.findStaleItemIds(LocalDateTime.now(clock), PageRequest.of(0, limit));
+        if (!stale.isEmpty())
+            rebuild(stale);
+        return stale.size();
+    }
+
+    /**
+     * Computes the rows of the items from their bookings and comments, adding the missing ones. The items are
+     * locked like for deciding a booking, so no approval can slip in between.
+     */
+    @Transactional
+    public void rebuild(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Item> items = itemRepository.findAllByIdInForUpdate(itemIds);
+        Set<Long> summarized = itemBookingSummaryRepository.findAllByItemIdIn(itemIds).stream()
+                .map(ItemBookingSummary::getItemId)
+                .collect(Collectors.toSet());
+        itemsCreated(items.stream()
+                .filter(item -> !summarized.contains(item.getId()))
+                .collect(Collectors.toList()));
+        itemBookingSummaryRepository.recountByItemIdIn(itemIds);
+        Map<Long, Booking> nextBookings = bookingRepository.findAllNextApprovedByItemIdIn(itemIds, now).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(), (first, second) -> first));
+        Map<Long, Booking> lastBookings = bookingRepository.findAllLastApprovedByItemIdIn(itemIds, now).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(), (first, second) -> first));
+        for (ItemBookingSummary summary : itemBookingSummaryRepository.findAllByItemIdIn(itemIds)) {
+            summary.setNextBooking(nextBookings.get(summary.getItemId()));
+            summary.setLastBooking(lastBookings.get(summary.getItemId()));
+        }
+        itemIds.forEach(itemCache::evictItem);
+    }
+
+    private static Map<Long, BookingClosest> mapByItemId(List<BookingClosest> bookings) {
+        Map<Long, BookingClosest> byItemId = new HashMap<>();
+        for (BookingClosest b : bookings) {
+            byItemId.putIfAbsent(b.getItemId(), b);
+        }
+        return byItemId;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds item booking summaries whose next booking has started, a batch per transaction, so an item is
+ * locked only for as long as its own batch takes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummarySweeper {
+
+    static final int BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    @Scheduled(fixedDelayString = "${shareit.item-summary.sweep-interval}")
+    public void sweep() {
+        int rebuilt = 0;
+        int batch;
+        do {
+            batch = itemBookingSummaryService.rebuildStale(BATCH_SIZE);
+            rebuilt += batch;
+        } while (batch == BATCH_SIZE);
+        if (rebuilt > 0)
+            log.info("Rebuilt {} item booking summaries", rebuilt);
+    }
+}
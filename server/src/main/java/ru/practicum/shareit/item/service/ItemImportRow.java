@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Value;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+/**
+ * A valid row of an import with its line number in the upload.
+ */
+@Value
+class ItemImportRow {
+    long line;
+    ItemDto item;
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.exception.UserNotFoundException;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports items of one owner from NDJSON, one item per line, as the upload is read.
+ * Rows are saved in chunks of {@value #CHUNK_SIZE}, each in its own transaction, so memory stays flat
+ * however large the upload is. A malformed or invalid row, or one naming a missing request, is reported
+ * with its line number and skipped; the rest of the load goes on.
+ */
+@Slf4j
+@Service
+@Timed("shareit.service")
+@RequiredArgsConstructor
+public class ItemImportService {
+
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ItemImportWriter itemImportWriter;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public ItemImportResult importItems(long ownerId, InputStream ndjson) throws IOException {
+        if (!userRepository.existsById(ownerId))
+            throw new UserNotFoundException("User with id " + ownerId + " not found");
+
+        ObjectReader reader = objectMapper.readerFor(ItemDto.class);
+        Report report = new Report();
+        List<ItemImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank())
+                continue;
+
+            ItemDto itemDto;
+            try {
+                itemDto = reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                report.fail(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto);
+            if (!violations.isEmpty()) {
+                report.fail(lineNumber, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            chunk.add(new ItemImportRow(lineNumber, itemDto));
+            if (chunk.size() == CHUNK_SIZE) {
+                write(ownerId, chunk, report);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty())
+            write(ownerId, chunk, report);
+
+        return report.toResult();
+    }
+
+    private void write(long ownerId, List<ItemImportRow> chunk, Report report) {
+        List<ItemImportError> errors;
+        try {
+            errors = itemImportWriter.write(ownerId, chunk);
+        } catch (DataAccessException e) {
+            log.warn("Import chunk of lines {}-{} not saved: {}",
+                    chunk.get(0).getLine(), chunk.get(chunk.size() - 1).getLine(), e.getMessage());
+            for (ItemImportRow row : chunk) {
+                report.fail(row.getLine(), "Not saved with lines " + chunk.get(0).getLine() + "-"
+                        + chunk.get(chunk.size() - 1).getLine() + ": " + e.getMostSpecificCause().getMessage());
+            }
+            return;
+        }
+        errors.forEach(error -> report.fail(error.getLine(), error.getMessage()));
+        report.imported += chunk.size() - errors.size();
+    }
+
+    private static final class Report {
+        private int imported;
+        private int failed;
+        private final List<ItemImportError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS)
+                errors.add(new ItemImportError(line, message));
+        }
+
+        ItemImportResult toResult() {
+            return new ItemImportResult(imported, failed, errors);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Saves one chunk of an import in its own transaction: the requests of the whole chunk are looked up
+ * in one select, and the items are inserted as JDBC batches of {@code hibernate.jdbc.batch_size}.
+ * The search engine sees the items only once the chunk commits, so a chunk reported as not saved leaves nothing
+ * searchable behind.
+ */
+@Component
+@RequiredArgsConstructor
+class ItemImportWriter {
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    /**
+     * Returns the rows which were not saved, with the reason.
+     */
+    @Transactional
+    public List<ItemImportError> write(long ownerId, List<ItemImportRow> rows) {
+        User owner = userRepository.getReferenceById(ownerId);
+        Set<Long> requestIds = rows.stream()
+                .map(row -> row.getItem().getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestIds.isEmpty()
+                ? Collections.emptyMap()
+                : itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<ItemImportError> errors = new ArrayList<>();
+        List<Item> items = new ArrayList<>(rows.size());
+        for (ItemImportRow row : rows) {
+            Long requestId = row.getItem().getRequestId();
+            ItemRequest request = requestId != null ? requests.get(requestId) : null;
+            if (requestId != null && request == null) {
+                errors.add(new ItemImportError(row.getLine(), "Item request " + requestId + " not found"));
+                continue;
+            }
+            Item item = ItemMapper.fromItemDto(row.getItem());
+            // every row is a new item, an id in the upload must not overwrite an existing one
+            item.setId(0);
+            item.setOwner(owner);
+            item.setRequest(request);
+            items.add(item);
+        }
+
+        itemRepository.saveAll(items);
+        itemBookingSummaryService.itemsCreated(items);
+        itemRepository.flush();
+        items.forEach(itemSearchEngine::index);
+        return errors;
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.service;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.util.pagination.CursorPage;
 
 import java.util.List;
 
@@ -13,12 +14,16 @@ public interface ItemService {
 
     List<ItemDto> getItemsByOwnerId(long ownerId, int from, int size);
 
+    CursorPage<ItemDto> getItemsByOwnerIdAfter(long ownerId, String after, int size);
+
     List<ItemDto> getItems();
 
     ItemDto updateItem(long itemId, long ownerId, ItemDto itemDto);
 
     List<ItemDto> searchItems(String text, int from, int size);
 
+    CursorPage<ItemDto> searchItemsAfter(String text, String after, int size);
+
     void deleteItem(long itemId);
 
     CommentResponseDto addComment(CommentRequestDto commentRequestDto, long bookerId, long itemId);
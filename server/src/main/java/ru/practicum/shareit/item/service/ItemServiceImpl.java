@@ -1,13 +1,15 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.dto.BookingClosest;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.dto.CommentInfo;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -17,6 +19,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -25,15 +28,23 @@ import ru.practicum.shareit.util.exception.CommentNotAuthorisedException;
 import ru.practicum.shareit.util.exception.ItemNotFoundException;
 import ru.practicum.shareit.util.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.util.exception.UserNotFoundException;
+import ru.practicum.shareit.util.pagination.CursorPage;
+import ru.practicum.shareit.util.pagination.PageCursor;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("shareit.service")
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
@@ -43,6 +54,10 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemCache itemCache;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final Clock clock;
 
     @Override
     @Transactional
@@ -61,41 +76,24 @@ public class ItemServiceImpl implements ItemService {
             }
         }
         item = itemRepository.save(item);
+        itemBookingSummaryService.itemsCreated(List.of(item));
+        itemSearchEngine.index(item);
         return ItemMapper.toItemDto(item);
     }
 
     @Override
     @Transactional(readOnly = true)
     public ItemDto getItemById(long itemId, long ownerId) {
-        Item item = checkPresenceAndReturnItemOrElseThrow(itemId);
-        ItemDto itemDto = ItemMapper.toItemDto(item);
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-        itemDto.setComments(CommentMapper.toCommentResponseDto(comments));
-
-        if (itemDto.getOwnerId() == ownerId) {
+        ItemDto cached = itemCache.getItem(itemId, () -> loadItemView(itemId));
 
-            List<BookingClosest> nextBookingClosest = bookingRepository
-                    .findNextClosestBookingByOwnerId(
-                            ownerId,
-                            itemId
-                    );
-
-            List<BookingClosest> lastBookingClosest = bookingRepository
-                    .findLastClosestBookingByOwnerId(
-                            ownerId,
-                            itemId
-                    );
-
-            if (!nextBookingClosest.isEmpty()) {
-                itemDto.setNextBooking(nextBookingClosest.get(0));
-            }
-
-            if (!lastBookingClosest.isEmpty()) {
-                itemDto.setLastBooking(lastBookingClosest.get(0));
-            }
+        if (cached.getOwnerId() == ownerId) {
+            return cached.toBuilder().build();
         }
 
-        return itemDto;
+        return cached.toBuilder()
+                .nextBooking(null)
+                .lastBooking(null)
+                .build();
     }
 
 
@@ -106,35 +104,21 @@ public class ItemServiceImpl implements ItemService {
         List<Item> items = itemRepository.findAllByOwnerIdOrderById(ownerId, page);
         List<Long> ids = getItemsIds(items);
         List<ItemDto> itemDtos = combineItemsWithComments(items, ids);
-
-        for (ItemDto i : itemDtos) {
-
-            List<BookingClosest> nextBookingClosest = bookingRepository
-                    .findNextClosestBookingByOwnerId(
-                            ownerId,
-                            i.getId()
-                    );
-
-            List<BookingClosest> lastBookingClosest = bookingRepository
-                    .findLastClosestBookingByOwnerId(
-                            ownerId,
-                            i.getId()
-                    );
-
-            if (!nextBookingClosest.isEmpty()) {
-                i.setNextBooking(nextBookingClosest.get(0));
-            }
-
-            if (!lastBookingClosest.isEmpty()) {
-                i.setLastBooking(lastBookingClosest.get(0));
-            }
-
-
-        }
-
+        itemBookingSummaryService.setClosestBookings(itemDtos);
         return itemDtos;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemDto> getItemsByOwnerIdAfter(long ownerId, String after, int size) {
+        long afterId = PageCursor.decode(after).getId();
+        List<Item> items = itemRepository.findAllByOwnerIdAndIdGreaterThanOrderById(ownerId, afterId, PageRequest.of(0, size));
+        List<Long> ids = getItemsIds(items);
+        List<ItemDto> itemDtos = combineItemsWithComments(items, ids);
+        itemBookingSummaryService.setClosestBookings(itemDtos);
+        return toCursorPage(itemDtos, ids, size);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ItemDto> getItems() {
@@ -148,9 +132,11 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto updateItem(long itemId, long ownerId, ItemDto itemDto) {
         checkPresenceAndReturnUserOrElseThrow(ownerId);
         itemRepository.updateItemFields(ItemMapper.fromItemDto(itemDto), ownerId, itemId);
-        ItemDto updatedItemDto = ItemMapper.toItemDto(checkPresenceAndReturnItemOrElseThrow(itemId));
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-        updatedItemDto.setComments(CommentMapper.toCommentResponseDto(comments));
+        Item updatedItem = checkPresenceAndReturnItemOrElseThrow(itemId);
+        itemSearchEngine.index(updatedItem);
+        itemCache.evictItem(itemId);
+        ItemDto updatedItemDto = ItemMapper.toItemDto(updatedItem);
+        updatedItemDto.setComments(getComments(itemId));
         return updatedItemDto;
     }
 
@@ -159,15 +145,27 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDto> searchItems(String text, int from, int size) {
         if (text.isEmpty()) return new ArrayList<>();
         Pageable page = PageRequest.of(from / size, size);
-        List<Item> items = itemRepository.searchItemByNameOrDescription(text, page);
+        List<Item> items = itemSearchEngine.search(text, page);
         List<Long> ids = getItemsIds(items);
         return combineItemsWithComments(items, ids);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemDto> searchItemsAfter(String text, String after, int size) {
+        long afterId = PageCursor.decode(after).getId();
+        if (text.isEmpty()) return new CursorPage<>(new ArrayList<>(), null);
+        List<Item> items = itemSearchEngine.searchAfter(text, afterId, size);
+        List<Long> ids = getItemsIds(items);
+        return toCursorPage(combineItemsWithComments(items, ids), ids, size);
+    }
+
     @Override
     @Transactional
     public void deleteItem(long itemId) {
         itemRepository.deleteById(itemId);
+        itemSearchEngine.remove(itemId);
+        itemCache.evictComments(itemId);
     }
 
     @Override
@@ -176,7 +174,8 @@ public class ItemServiceImpl implements ItemService {
         User user = checkPresenceAndReturnUserOrElseThrow(bookerId);
         Item item = checkPresenceAndReturnItemOrElseThrow(itemId);
 
-        List<Booking> bookings = bookingRepository.findAllByBookerIdPast(bookerId, PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByBookerIdPast(bookerId, LocalDateTime.now(clock),
+                PageRequest.of(0, 10));
 
         if (bookings.isEmpty())
             throw new CommentNotAuthorisedException("Booking from user " + bookerId + " for item " + itemId + " doesn't exist");
@@ -191,7 +190,7 @@ public class ItemServiceImpl implements ItemService {
         Comment comment = CommentMapper.fromCommentRequestDto(commentRequestDto);
 
         ZoneId zoneId = ZoneId.of("Europe/Moscow");
-        ZonedDateTime moscowDateTime = ZonedDateTime.now(zoneId);
+        ZonedDateTime moscowDateTime = ZonedDateTime.now(clock.withZone(zoneId));
         comment.setCreated(moscowDateTime.plusMinutes(1));
 
         if (ZonedDateTime.of(booking.getEnd(), zoneId).isAfter(comment.getCreated())) {
@@ -204,9 +203,26 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item);
         comment.setAuthor(user);
         comment = commentRepository.save(comment);
+        itemBookingSummaryService.commentAdded(comment);
+        itemCache.evictComments(itemId);
         return CommentMapper.toCommentResponseDto(comment);
     }
 
+    private ItemDto loadItemView(long itemId) {
+        Item item = checkPresenceAndReturnItemOrElseThrow(itemId);
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        itemDto.setComments(getComments(itemId));
+        itemBookingSummaryService.setClosestBookings(List.of(itemDto));
+        return itemDto;
+    }
+
+    private List<CommentResponseDto> getComments(long itemId) {
+        return itemCache.getComments(itemId, () -> {
+            List<CommentInfo> comments = commentRepository.findAllInfoByItemId(itemId);
+            return List.copyOf(CommentMapper.toCommentResponseDto(comments));
+        });
+    }
+
     private List<Long> getItemsIds(List<Item> items) {
         return items.stream()
                 .map(Item::getId)
@@ -214,20 +230,27 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private List<ItemDto> combineItemsWithComments(List<Item> items, List<Long> ids) {
-        List<Comment> comments = commentRepository.findAllByItemIdIn(ids);
-        List<ItemDto> itemDtos = new ArrayList<>();
+        Map<Long, List<CommentResponseDto>> commentsByItemId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (CommentInfo c : commentRepository.findAllInfoByItemIdIn(ids)) {
+                commentsByItemId.computeIfAbsent(c.getItemId(), id -> new ArrayList<>())
+                        .add(CommentMapper.toCommentResponseDto(c));
+            }
+        }
+        List<ItemDto> itemDtos = new ArrayList<>(items.size());
         for (Item i : items) {
-            List<CommentResponseDto> itemComments = comments.stream()
-                    .filter(c -> c.getItem().getId() == i.getId())
-                    .map(CommentMapper::toCommentResponseDto)
-                    .collect(Collectors.toList());
             ItemDto dto = ItemMapper.toItemDto(i);
-            dto.setComments(itemComments);
+            dto.setComments(commentsByItemId.getOrDefault(i.getId(), Collections.emptyList()));
             itemDtos.add(dto);
         }
         return itemDtos;
     }
 
+    private CursorPage<ItemDto> toCursorPage(List<ItemDto> itemDtos, List<Long> ids, int size) {
+        String next = ids.size() == size ? PageCursor.of(ids.get(ids.size() - 1)).encode() : null;
+        return new CursorPage<>(itemDtos, next);
+    }
+
     private User checkPresenceAndReturnUserOrElseThrow(long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User with id " + userId + " not found"));
@@ -2,12 +2,14 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDescription;
 import ru.practicum.shareit.request.dto.ItemRequestInfo;
 import ru.practicum.shareit.request.dto.ItemRequestInfoWithItems;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.util.pagination.CursorPage;
 
 import java.util.List;
 
@@ -53,6 +55,19 @@ public class ItemRequestController {
         return response;
     }
 
+    @GetMapping(path = "/all", params = "after")
+    public ResponseEntity<List<ItemRequestInfoWithItems>> getOtherUsersItemRequestsAfter(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam String after,
+            @RequestParam int size
+    ) {
+        log.info("GET request received for other Item Request after cursor \"{}\"", after);
+        CursorPage<ItemRequestInfoWithItems> response = itemRequestService
+                .getOtherUsersItemRequestsAfter(userId, after, size);
+        log.info("Other item requests: {}", response.getContent());
+        return response.toResponseEntity();
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestInfoWithItems getItemRequestById(
             @RequestHeader("X-Sharer-User-Id") long userId,
@@ -10,6 +10,9 @@ import java.time.format.DateTimeFormatter;
 
 @UtilityClass
 public class ItemRequestMapper {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
     public static ItemRequest fromItemRequestDto(ItemRequestDescription itemRequestDto) {
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setDescription(itemRequestDto.getDescription());
@@ -17,9 +20,7 @@ public class ItemRequestMapper {
     }
 
     public static ItemRequestInfo toItemRequestDto(ItemRequest itemRequest) {
-        String created = DateTimeFormatter
-                .ofPattern("yyyy-MM-dd'T'HH:mm:ss")
-                .format(itemRequest.getCreated());
+        String created = DATE_TIME_FORMATTER.format(itemRequest.getCreated());
 
         return ItemRequestInfo.builder()
                 .id(itemRequest.getId())
@@ -29,9 +30,7 @@ public class ItemRequestMapper {
     }
 
     public static ItemRequestInfoWithItems toItemRequestWithItemsDto(ItemRequest itemRequest) {
-        String created = DateTimeFormatter
-                .ofPattern("yyyy-MM-dd'T'HH:mm:ss")
-                .format(itemRequest.getCreated());
+        String created = DATE_TIME_FORMATTER.format(itemRequest.getCreated());
 
         return ItemRequestInfoWithItems.builder()
                 .id(itemRequest.getId())
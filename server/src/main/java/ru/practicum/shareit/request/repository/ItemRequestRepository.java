@@ -3,8 +3,10 @@ package ru.practicum.shareit.request.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
@@ -13,4 +15,10 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
 
     Page<ItemRequest> findByRequesterIdIsNot(long id, Pageable pageable);
 
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requester.id <> :userId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findOtherUsersRequestsAfterCursor(long userId, ZonedDateTime created, long id, Pageable pageable);
+
 }
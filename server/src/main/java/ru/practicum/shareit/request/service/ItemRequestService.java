@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import ru.practicum.shareit.request.dto.ItemRequestDescription;
 import ru.practicum.shareit.request.dto.ItemRequestInfo;
 import ru.practicum.shareit.request.dto.ItemRequestInfoWithItems;
+import ru.practicum.shareit.util.pagination.CursorPage;
 
 import java.util.List;
 
@@ -13,5 +14,7 @@ public interface ItemRequestService {
 
     List<ItemRequestInfoWithItems> getOtherUsersItemRequests(long userId, int from, int size);
 
+    CursorPage<ItemRequestInfoWithItems> getOtherUsersItemRequestsAfter(long userId, String after, int size);
+
     ItemRequestInfoWithItems getItemRequestById(long userId, long requestId);
 }
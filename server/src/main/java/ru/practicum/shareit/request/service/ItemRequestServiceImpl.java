@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,14 +19,21 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.util.exception.UserNotFoundException;
+import ru.practicum.shareit.util.pagination.CursorPage;
+import ru.practicum.shareit.util.pagination.PageCursor;
 
+import java.time.Clock;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("shareit.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
@@ -33,6 +41,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final Clock clock;
 
     @Override
     @Transactional
@@ -42,7 +51,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             User user = maybeUser.get();
             ItemRequest itemRequest = ItemRequestMapper.fromItemRequestDto(request);
             itemRequest.setRequester(user);
-            itemRequest.setCreated(ZonedDateTime.now());
+            itemRequest.setCreated(ZonedDateTime.now(clock));
             itemRequest = itemRequestRepository.save(itemRequest);
             return ItemRequestMapper.toItemRequestDto(itemRequest);
         } else {
@@ -61,10 +70,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                     .map(ItemRequestMapper::toItemRequestWithItemsDto)
                     .collect(Collectors.toList());
 
-            for (ItemRequestInfoWithItems r : requests) {
-                List<ItemResponseForRequest> items = getItemResponsesForRequest(r.getId());
-                r.setItems(items);
-            }
+            setItemResponses(requests);
             return requests;
         } else {
             throw new UserNotFoundException("User with id " + userId + " was not found");
@@ -81,14 +87,31 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .map(ItemRequestMapper::toItemRequestWithItemsDto)
                 .collect(Collectors.toList());
 
-        for (ItemRequestInfoWithItems r : requests) {
-            List<ItemResponseForRequest> items = getItemResponsesForRequest(r.getId());
-            r.setItems(items);
-        }
+        setItemResponses(requests);
 
         return requests;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemRequestInfoWithItems> getOtherUsersItemRequestsAfter(long userId, String after, int size) {
+        PageCursor cursor = PageCursor.decode(after);
+        List<ItemRequest> itemRequests = itemRequestRepository.findOtherUsersRequestsAfterCursor(
+                userId, cursor.getZonedDateTimeOrMax(), cursor.getIdOrMax(), PageRequest.of(0, size));
+        List<ItemRequestInfoWithItems> requests = itemRequests.stream()
+                .map(ItemRequestMapper::toItemRequestWithItemsDto)
+                .collect(Collectors.toList());
+
+        setItemResponses(requests);
+
+        String next = null;
+        if (itemRequests.size() == size) {
+            ItemRequest last = itemRequests.get(itemRequests.size() - 1);
+            next = PageCursor.of(last.getCreated(), last.getId()).encode();
+        }
+        return new CursorPage<>(requests, next);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ItemRequestInfoWithItems getItemRequestById(long userId, long requestId) {
@@ -108,6 +131,24 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         }
     }
 
+    private void setItemResponses(List<ItemRequestInfoWithItems> requests) {
+        if (requests.isEmpty()) return;
+
+        List<Long> ids = new ArrayList<>(requests.size());
+        for (ItemRequestInfoWithItems r : requests) {
+            ids.add(r.getId());
+        }
+
+        Map<Long, List<ItemResponseForRequest>> itemsByRequestId = new HashMap<>();
+        for (ItemResponseForRequest item : itemRepository.getItemDescriptionForRequests(ids)) {
+            itemsByRequestId.computeIfAbsent(item.getRequestId(), id -> new ArrayList<>()).add(item);
+        }
+
+        for (ItemRequestInfoWithItems r : requests) {
+            r.setItems(itemsByRequestId.getOrDefault(r.getId(), Collections.emptyList()));
+        }
+    }
+
     private List<ItemResponseForRequest> getItemResponsesForRequest(long requestId) {
         List<ItemResponseForRequest> items = itemRepository.getItemDescriptionForRequest(requestId);
         if (!items.isEmpty()) {
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.cache.ItemCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -12,11 +14,13 @@ import ru.practicum.shareit.util.exception.UserNotFoundException;
 import java.util.List;
 
 @Service
+@Timed("shareit.service")
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ItemCache itemCache;
 
     @Transactional
     public UserDto createUser(UserDto userDto) {
@@ -41,6 +45,8 @@ public class UserService {
     @Transactional
     public UserDto updateUser(long userId, UserDto userDto) {
         userRepository.updateUserFields(UserMapper.fromUserDto(userDto), userId);
+        // cached comments carry the author's name
+        itemCache.clear();
         return UserMapper.toUserDto(userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(String.format("User with id %s not found", userId))));
     }
@@ -50,6 +56,7 @@ public class UserService {
         userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(String.format("User with id %s not found", userId)));
         userRepository.deleteById(userId);
+        itemCache.clear();
     }
 
 }
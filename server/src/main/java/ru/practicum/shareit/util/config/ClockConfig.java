@@ -0,0 +1,19 @@
+package ru.practicum.shareit.util.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * The clock every "now" of the server is read from, also the one bound to the time states of booking queries.
+ * Tests put a fixed one in its place.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.util.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Strong ETags over the body of item, user and request views. A GET with a matching
+ * {@code If-None-Match} is answered with 304 and no body, so the gateway can revalidate its cached copy.
+ */
+@Configuration
+public class ETagFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/items/*", "/users/*", "/requests/*");
+        registration.setName("shallowEtagHeaderFilter");
+        return registration;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.util.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import ru.practicum.shareit.util.metrics.BookingStateTag;
+import ru.practicum.shareit.util.metrics.QueryCountFilter;
+import ru.practicum.shareit.util.metrics.QueryCounter;
+
+import java.util.function.Function;
+
+/**
+ * Service methods annotated with {@code @Timed} are timed with a booking state tag; every request counts
+ * the SQL statements it ran. All of it is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        Function<ProceedingJoinPoint, Iterable<Tag>> tags = pjp -> Tags.of(
+                        "class", pjp.getStaticPart().getSignature().getDeclaringTypeName(),
+                        "method", pjp.getStaticPart().getSignature().getName())
+                .and(BookingStateTag.of(pjp));
+        return new TimedAspect(meterRegistry, tags);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+    }
+
+    /**
+     * Outside of the ETag filter, so the header is set when the buffered body is finally written.
+     */
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryCounter queryCounter,
+                                                                     MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(queryCounter, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setName("queryCountFilter");
+        return registration;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.util.exception;
+
+public class DuplicateBookingDecisionException extends RuntimeException {
+    public DuplicateBookingDecisionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.util.exception;
+
+public class UnsupportedExportFormatException extends RuntimeException {
+    public UnsupportedExportFormatException(String message) {
+        super(message);
+    }
+}
@@ -10,6 +10,10 @@ import ru.practicum.shareit.util.exception.*;
 
 import javax.validation.ConstraintViolationException;
 
+/**
+ * Expected business errors are logged as one line with the message only, their stack traces tell nothing new
+ * and cost more than the request itself. Unexpected errors keep the full stack trace.
+ */
 @Slf4j
 @RestControllerAdvice
 public class ErrorHandler {
@@ -17,77 +21,105 @@ public class ErrorHandler {
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleUserNotFoundException(final UserNotFoundException e) {
-        e.printStackTrace();
+        log.warn("Not found: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleItemNotFoundException(final ItemNotFoundException e) {
-        e.printStackTrace();
+        log.warn("Not found: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleBookingNotFoundException(final BookingNotFoundException e) {
-        e.printStackTrace();
+        log.warn("Not found: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleAccessDenyException(final AccessDenyException e) {
-        e.printStackTrace();
+        log.warn("Not found: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleItemRequestNotFoundException(final ItemRequestNotFoundException e) {
-        e.printStackTrace();
+        log.warn("Not found: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingConflictException(final BookingConflictException e) {
+        log.warn("Conflict: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowableException(final Throwable e) {
-        e.printStackTrace();
+        log.error("Unexpected error", e);
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationErrors(final MethodArgumentNotValidException e) {
-        e.printStackTrace();
+        log.warn("Bad request: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleConstraintViolationException(final ConstraintViolationException e) {
-        e.printStackTrace();
+        log.warn("Bad request: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleItemNotAvailableException(final ItemNotAvailbaleException e) {
-        e.printStackTrace();
+        log.warn("Bad request: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleUnsupportedStateException(final UnsupportedStateException e) {
-        e.printStackTrace();
+        log.warn("Bad request: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleCommentNotAuthorisedException(final CommentNotAuthorisedException e) {
-        e.printStackTrace();
+        log.warn("Bad request: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleDuplicateBookingDecisionException(final DuplicateBookingDecisionException e) {
+        log.warn("Bad request: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleUnsupportedExportFormatException(final UnsupportedExportFormatException e) {
+        log.warn("Bad request: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidCursorException(final InvalidCursorException e) {
+        log.warn("Bad request: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.util.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import lombok.experimental.UtilityClass;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.Set;
+
+/**
+ * {@code booking.state} tag of a timed call: the {@link BookingState} argument or the {@code state} request
+ * parameter, {@code none} for calls without one. Unknown states share one value, so a client can't blow up
+ * the number of series.
+ */
+@UtilityClass
+public class BookingStateTag {
+
+    public static final String KEY = "booking.state";
+
+    private static final Set<String> STATES = Set.of(
+            "ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "APPROVED", "REJECTED", "CANCELED");
+
+    public static Tag of(ProceedingJoinPoint pjp) {
+        Object[] args = pjp.getArgs();
+        String[] names = ((MethodSignature) pjp.getSignature()).getParameterNames();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof BookingState) {
+                return Tag.of(KEY, ((BookingState) args[i]).name());
+            }
+            if (args[i] instanceof String && names != null && "state".equals(names[i])) {
+                return Tag.of(KEY, STATES.contains(args[i]) ? (String) args[i] : "UNKNOWN");
+            }
+        }
+        return Tag.of(KEY, "none");
+    }
+}
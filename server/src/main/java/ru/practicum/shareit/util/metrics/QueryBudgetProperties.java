@@ -0,0 +1,29 @@
+package ru.practicum.shareit.util.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.query-budget")
+public class QueryBudgetProperties {
+    /**
+     * Most SQL statements one request may run, 0 for no budget.
+     */
+    private int maxStatements = 0;
+    private Action onExceed = Action.LOG;
+    /**
+     * Ant patterns of request paths whose statements grow with their input by design, e.g. bulk imports.
+     * They are counted, but never held to the budget.
+     */
+    private List<String> excludedPaths = new ArrayList<>();
+
+    public enum Action {
+        LOG,
+        FAIL
+    }
+}
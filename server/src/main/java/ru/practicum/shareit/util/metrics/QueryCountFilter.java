@@ -0,0 +1,118 @@
+package ru.practicum.shareit.util.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the SQL statements of each request: returns them in the {@code X-Query-Count} header, records them as
+ * {@code http.server.requests.queries} tagged like {@code http.server.requests} by method and uri template,
+ * and warns about requests over the budget. An endpoint whose count grows with the page size is an N+1.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+    public static final String METRIC_NAME = "http.server.requests.queries";
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCountResponse countedResponse = new QueryCountResponse(response);
+        boolean budgeted = queryCounter.isBudgeted(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        queryCounter.start(budgeted);
+        int queries;
+        try {
+            filterChain.doFilter(request, countedResponse);
+            countedResponse.setQueryCountHeader();
+        } finally {
+            queries = queryCounter.stop();
+        }
+
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uriTag = uri != null ? uri.toString() : "UNKNOWN";
+        DistributionSummary.builder(METRIC_NAME)
+                .baseUnit("queries")
+                .tag("method", request.getMethod())
+                .tag("uri", uriTag)
+                .serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(queries);
+        if (budgeted && queryCounter.exceeds(queries)) {
+            log.warn("{} {} ran {} SQL statements, over the query budget", request.getMethod(), uriTag, queries);
+        }
+    }
+
+    /**
+     * Sets the header just before the response gets committed: statements run while the body is written
+     * are not counted in it, only in the metric.
+     */
+    private class QueryCountResponse extends HttpServletResponseWrapper {
+        private boolean headerSet;
+
+        QueryCountResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void setQueryCountHeader() {
+            if (!headerSet && !isCommitted()) {
+                setIntHeader(HEADER, queryCounter.current());
+            }
+            headerSet = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setQueryCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setQueryCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setQueryCountHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setQueryCountHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setQueryCountHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            setQueryCountHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.util.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import ru.practicum.shareit.util.exception.QueryBudgetExceededException;
+
+/**
+ * Counts SQL statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+ * Outside of that window statements pass uncounted.
+ * With {@code shareit.query-budget.on-exceed=fail} the statement over the budget is refused, so the stack trace
+ * points at the query which broke it. Requests to {@code shareit.query-budget.excluded-paths} are counted
+ * without a budget.
+ */
+@Component
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<Count> COUNT = new ThreadLocal<>();
+
+    private final QueryBudgetProperties budget;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public QueryCounter(QueryBudgetProperties budget) {
+        this.budget = budget;
+    }
+
+    public void start() {
+        start(true);
+    }
+
+    public void start(boolean budgeted) {
+        COUNT.set(new Count(budgeted));
+    }
+
+    /**
+     * Whether requests to {@code path} are held to the budget.
+     */
+    public boolean isBudgeted(String path) {
+        return budget.getExcludedPaths().stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    public int current() {
+        Count count = COUNT.get();
+        return count != null ? count.statements : 0;
+    }
+
+    public int stop() {
+        int count = current();
+        COUNT.remove();
+        return count;
+    }
+
+    /**
+     * Whether {@code count} statements are over the budget.
+     */
+    public boolean exceeds(int count) {
+        return budget.getMaxStatements() > 0 && count > budget.getMaxStatements();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Count count = COUNT.get();
+        if (count != null) {
+            count.statements++;
+            if (count.budgeted && budget.getOnExceed() == QueryBudgetProperties.Action.FAIL
+                    && exceeds(count.statements)) {
+                throw new QueryBudgetExceededException("Statement " + count.statements + " is over the budget of "
+                        + budget.getMaxStatements() + " per request: " + sql);
+            }
+        }
+        return sql;
+    }
+
+    private static final class Count {
+        private final boolean budgeted;
+        private int statements;
+
+        private Count(boolean budgeted) {
+            this.budgeted = budgeted;
+        }
+    }
+}
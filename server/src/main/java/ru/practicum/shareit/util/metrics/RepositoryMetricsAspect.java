@@ -0,0 +1,58 @@
+package ru.practicum.shareit.util.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call of the Spring Data repositories as {@code shareit.repository}, tagged by repository,
+ * method, booking state and exception. Unlike the built-in repository metrics it sees the arguments,
+ * so the booking state can be a tag.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    public static final String METRIC_NAME = "shareit.repository";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* ru.practicum.shareit..repository.*Repository.*(..))")
+    public Object time(ProceedingJoinPoint pjp) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return pjp.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tags(Tags.of(
+                            "repository", repositoryName(pjp),
+                            "method", pjp.getSignature().getName(),
+                            "exception", exception))
+                    .tag(BookingStateTag.KEY, BookingStateTag.of(pjp).getValue())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Inherited methods like {@code findById} are declared by Spring Data interfaces, so the name is taken
+     * from the interface of the repository proxy.
+     */
+    private static String repositoryName(ProceedingJoinPoint pjp) {
+        for (Class<?> type : pjp.getTarget().getClass().getInterfaces()) {
+            if (type.getName().startsWith("ru.practicum.shareit.")) {
+                return type.getSimpleName();
+            }
+        }
+        return pjp.getSignature().getDeclaringType().getSimpleName();
+    }
+}
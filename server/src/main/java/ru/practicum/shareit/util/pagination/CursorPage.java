@@ -0,0 +1,32 @@
+package ru.practicum.shareit.util.pagination;
+
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code next} is the token for the following page,
+ * or {@code null} when the page was not full.
+ */
+@Getter
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String next;
+
+    public CursorPage(List<T> content, String next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    /**
+     * Page content as the response body, with the next token in the {@link PageCursor#NEXT_HEADER} header.
+     */
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (next != null) {
+            builder.header(PageCursor.NEXT_HEADER, next);
+        }
+        return builder.body(content);
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.util.pagination;
+
+import ru.practicum.shareit.util.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque {@code after} token of keyset pagination: the sort key and id of the last row of the previous page.
+ * An empty token asks for the first page.
+ */
+public final class PageCursor {
+
+    public static final String NEXT_HEADER = "X-Next-Cursor";
+
+    private static final LocalDateTime MAX_LOCAL_DATE_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final ZonedDateTime MAX_ZONED_DATE_TIME = MAX_LOCAL_DATE_TIME.atZone(ZoneOffset.UTC);
+    private static final String SEPARATOR = "|";
+
+    private final String key;
+    private final long id;
+
+    private PageCursor(String key, long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static PageCursor of(long id) {
+        return new PageCursor("", id);
+    }
+
+    public static PageCursor of(LocalDateTime key, long id) {
+        return new PageCursor(key.toString(), id);
+    }
+
+    public static PageCursor of(ZonedDateTime key, long id) {
+        return new PageCursor(key.toInstant().toString(), id);
+    }
+
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) return new PageCursor(null, 0);
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            if (separator < 0) throw new InvalidCursorException("Invalid page cursor: " + token);
+            return new PageCursor(value.substring(0, separator), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return key == null;
+    }
+
+    /**
+     * Id to seek after in ascending id order; {@code 0} for the first page.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Id to seek before in descending (key, id) order; above every row for the first page.
+     */
+    public long getIdOrMax() {
+        return isFirst() ? Long.MAX_VALUE : id;
+    }
+
+    public LocalDateTime getLocalDateTimeOrMax() {
+        if (isFirst()) return MAX_LOCAL_DATE_TIME;
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + encode());
+        }
+    }
+
+    public ZonedDateTime getZonedDateTimeOrMax() {
+        if (isFirst()) return MAX_ZONED_DATE_TIME;
+        try {
+            return Instant.parse(key).atZone(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + encode());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+-- bookings of a booker, newest first: findAllByBookerId* and their keyset variants
+CREATE INDEX bookings_booker_id_start_date_idx ON bookings (booker_id, start_date, id);
+
+-- next/last approved booking per item and bookings of an owner's items by status
+CREATE INDEX bookings_item_id_status_start_date_idx ON bookings (item_id, status, start_date);
+
+-- items of an owner in id order: findAllByOwnerIdOrderById, findAllByOwnerIdAndIdGreaterThanOrderById
+CREATE INDEX items_owner_id_idx ON items (owner_id, id);
+
+-- items answering a request: getItemDescriptionForRequest
+CREATE INDEX items_request_id_idx ON items (request_id);
+
+-- comments of an item: findAllInfoByItemId, findAllInfoByItemIdIn
+CREATE INDEX comments_item_id_idx ON comments (item_id);
+
+-- requests of a user, newest first: findAllByRequesterIdOrderByCreatedDesc
+CREATE INDEX requests_requester_id_created_idx ON requests (requester_id, created);
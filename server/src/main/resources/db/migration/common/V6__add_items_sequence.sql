@@ -0,0 +1,2 @@
+-- Hibernate takes item ids from here 50 at a time (pooled optimizer), so item inserts can be batched
+CREATE SEQUENCE items_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,21 @@
+-- last/next approved booking, bookings and last comment per item, kept up to date by the server
+-- instead of scanning bookings for every item view; see ItemBookingSummaryService
+CREATE TABLE item_booking_summary (
+                          item_id BIGINT PRIMARY KEY,
+                          last_booking_id BIGINT,
+                          last_booker_id BIGINT,
+                          last_start_date TIMESTAMP WITH TIME ZONE,
+                          next_booking_id BIGINT,
+                          next_booker_id BIGINT,
+                          next_start_date TIMESTAMP WITH TIME ZONE,
+                          total_bookings BIGINT NOT NULL DEFAULT 0,
+                          last_comment_created TIMESTAMP WITH TIME ZONE,
+                          CONSTRAINT fk_item_booking_summary_to_items FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+-- rows whose next booking has started, rebuilt by the sweeper
+CREATE INDEX item_booking_summary_next_start_date_idx ON item_booking_summary (next_start_date);
+
+-- existing items get rows which are stale from the start, the sweeper fills them in after the upgrade
+INSERT INTO item_booking_summary (item_id, next_start_date)
+SELECT id, TIMESTAMP '1970-01-01 00:00:00' FROM items;
@@ -0,0 +1,4 @@
+-- PAST listings bound start_date as well as end_date to range-scan the start_date indexes; that is only exact
+-- while no booking ends before it starts. Fails on a database which holds such bookings, they have to be fixed first.
+ALTER TABLE bookings
+    ADD CONSTRAINT check_bookings_start_not_after_end CHECK (start_date <= end_date);
@@ -0,0 +1,8 @@
+-- Backstop for the item lock in BookingServiceImpl: two approved bookings of one item never overlap.
+-- Fails on a database which already holds such bookings, they have to be resolved by hand first.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_approved_no_overlap
+    EXCLUDE USING gist (item_id WITH =, tstzrange(start_date, end_date) WITH &&)
+    WHERE (status = 'APPROVED');
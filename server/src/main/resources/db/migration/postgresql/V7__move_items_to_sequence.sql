@@ -0,0 +1,6 @@
+-- The pooled optimizer hands out the 49 ids below each value it fetches, so the first value
+-- must lie 50 above the ids the BIGSERIAL default has given out.
+SELECT setval('items_seq', COALESCE(MAX(id), 0) + 50, false) FROM items;
+
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+DROP SEQUENCE items_id_seq;
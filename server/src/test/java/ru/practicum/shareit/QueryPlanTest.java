@@ -0,0 +1,215 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the hot queries of the repositories are served by the indexes of the migrations.
+ * H2 always prefers the indexes it creates for foreign keys, so this needs a real PostgreSQL:
+ * {@code mvn test -Dtest=QueryPlanTest -Dshareit.postgres.url=jdbc:postgresql://localhost:6541/shareit
+ * -Dshareit.postgres.user=postgres -Dshareit.postgres.password=iamroot}
+ * The migrations are applied to a separate schema which is dropped afterwards.
+ */
+@EnabledIfSystemProperty(named = "shareit.postgres.url", matches = ".+")
+class QueryPlanTest {
+
+    private static final String SCHEMA = "shareit_query_plan_test";
+
+    private static Flyway flyway;
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndFill() throws SQLException {
+        String url = System.getProperty("shareit.postgres.url");
+        String user = System.getProperty("shareit.postgres.user");
+        String password = System.getProperty("shareit.postgres.password");
+
+        flyway = Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA + ", public");
+            statement.execute("INSERT INTO users (name, email) " +
+                    "SELECT 'user' || i, 'user' || i || '@email.com' FROM generate_series(1, 10000) AS i");
+            statement.execute("INSERT INTO requests (description, requester_id, created) " +
+                    "SELECT 'request', 1 + i % 10000, now() - i * interval '1 minute' " +
+                    "FROM generate_series(1, 50000) AS i");
+            // explicit ids: the items_seq default steps by 50
+            statement.execute("INSERT INTO items (id, name, description, is_available, owner_id, request_id) " +
+                    "SELECT i, 'item', 'description', TRUE, 1 + i % 10000, CASE WHEN i % 2 = 0 THEN 1 + i % 50000 END " +
+                    "FROM generate_series(1, 100000) AS i");
+            statement.execute("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                    "SELECT now() + (i % 1000 - 500 + i / 100000 * 1000) * interval '1 day', " +
+                    "now() + (i % 1000 - 499 + i / 100000 * 1000) * interval '1 day', " +
+                    "1 + i % 100000, 1 + i % 10000, (ARRAY['WAITING', 'APPROVED', 'REJECTED'])[1 + i % 3] " +
+                    "FROM generate_series(1, 500000) AS i");
+            statement.execute("INSERT INTO comments (text, item_id, author_id, created) " +
+                    "SELECT 'comment', 1 + i % 100000, 1 + i % 10000, now() FROM generate_series(1, 100000) AS i");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void clean() throws SQLException {
+        if (connection != null) connection.close();
+        if (flyway != null) flyway.clean();
+    }
+
+    @Test
+    void bookingsOfBooker_useBookerStartDateIndex() throws SQLException {
+        assertPlanUses("bookings_booker_id_start_date_idx",
+                "SELECT * FROM bookings AS b WHERE b.booker_id = 42 ORDER BY b.start_date DESC LIMIT 10");
+        assertPlanUses("bookings_booker_id_start_date_idx",
+                "SELECT * FROM bookings AS b WHERE b.booker_id = 42 " +
+                        "AND (b.start_date < now() OR (b.start_date = now() AND b.id < 1000)) " +
+                        "ORDER BY b.start_date DESC, b.id DESC LIMIT 10");
+    }
+
+    /**
+     * Every state branch of GET /bookings, with {@code now} a parameter the way the repository binds it.
+     * The plan checked is the generic one, which a cached prepared statement ends up with.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void bookingsOfBookerByState_useBookerStartDateIndex(String state) throws SQLException {
+        assertGenericPlanUses("bookings_booker_id_start_date_idx",
+                "SELECT * FROM bookings AS b WHERE b.booker_id = $1 " + statePredicate(state) +
+                        " ORDER BY b.start_date DESC, b.id DESC LIMIT 10", state);
+    }
+
+    /**
+     * Every state branch of GET /bookings/owner, as {@link #bookingsOfBookerByState_useBookerStartDateIndex}.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void bookingsOfOwnerByState_useOwnerAndItemIndexes(String state) throws SQLException {
+        String sql = "SELECT b.* FROM bookings AS b JOIN items AS i ON i.id = b.item_id WHERE i.owner_id = $1 " +
+                statePredicate(state) + " ORDER BY b.start_date DESC, b.id DESC LIMIT 10";
+        assertGenericPlanUses("items_owner_id_idx", sql, state);
+        assertGenericPlanUses("bookings_item_id_status_start_date_idx", sql, state);
+    }
+
+    @Test
+    void closestBookingsOfItems_useItemStatusStartDateIndex() throws SQLException {
+        assertPlanUses("bookings_item_id_status_start_date_idx",
+                "SELECT b.id, b.booker_id, b.item_id FROM bookings AS b " +
+                        "WHERE b.item_id IN (1, 2, 3) AND b.status = 'APPROVED' " +
+                        "AND b.start_date = (SELECT MIN(n.start_date) FROM bookings AS n " +
+                        "WHERE n.item_id = b.item_id AND n.status = 'APPROVED' AND n.start_date > now()) " +
+                        "ORDER BY b.id");
+    }
+
+    @Test
+    void itemsOfOwner_useOwnerIndex() throws SQLException {
+        assertPlanUses("items_owner_id_idx",
+                "SELECT * FROM items AS i WHERE i.owner_id = 42 ORDER BY i.id LIMIT 10");
+        assertPlanUses("items_owner_id_idx",
+                "SELECT * FROM items AS i WHERE i.owner_id = 42 AND i.id > 50000 ORDER BY i.id LIMIT 10");
+    }
+
+    @Test
+    void itemsForRequest_useRequestIndex() throws SQLException {
+        assertPlanUses("items_request_id_idx",
+                "SELECT i.id, i.name, i.description, i.is_available, i.request_id FROM items AS i " +
+                        "WHERE i.request_id = 42");
+    }
+
+    @Test
+    void commentsOfItems_useItemIndex() throws SQLException {
+        assertPlanUses("comments_item_id_idx",
+                "SELECT * FROM comments AS c WHERE c.item_id IN (1, 2, 3)");
+    }
+
+    @Test
+    void requestsOfRequester_useRequesterCreatedIndex() throws SQLException {
+        assertPlanUses("requests_requester_id_created_idx",
+                "SELECT * FROM requests AS r WHERE r.requester_id = 42 ORDER BY r.created DESC");
+    }
+
+    private static String statePredicate(String state) {
+        switch (state) {
+            case "CURRENT":
+                return "AND b.start_date < $2 AND b.end_date > $2";
+            case "PAST":
+                return "AND b.start_date < $2 AND b.end_date < $2";
+            case "FUTURE":
+                return "AND b.start_date > $2";
+            case "WAITING":
+            case "REJECTED":
+                return "AND b.status = $2";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * {@code now} is a {@code timestamp}, as Hibernate binds a {@code LocalDateTime}.
+     */
+    private void assertGenericPlanUses(String index, String sql, String state) throws SQLException {
+        String types;
+        String arguments;
+        switch (state) {
+            case "CURRENT":
+            case "PAST":
+            case "FUTURE":
+                types = "bigint, timestamp";
+                arguments = "42, LOCALTIMESTAMP";
+                break;
+            case "WAITING":
+            case "REJECTED":
+                types = "bigint, varchar";
+                arguments = "42, '" + state + "'";
+                break;
+            default:
+                types = "bigint";
+                arguments = "42";
+        }
+
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+            statement.execute("PREPARE by_state (" + types + ") AS " + sql);
+            try (ResultSet rs = statement.executeQuery("EXPLAIN EXECUTE by_state (" + arguments + ")")) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append(System.lineSeparator());
+                }
+            } finally {
+                statement.execute("DEALLOCATE by_state");
+                statement.execute("RESET plan_cache_mode");
+            }
+        }
+        assertTrue(plan.indexOf(index) >= 0, "Expected " + index + " in plan of " + sql + ":\n" + plan);
+    }
+
+    private void assertPlanUses(String index, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append(System.lineSeparator());
+            }
+        }
+        assertTrue(plan.indexOf(index) >= 0, "Expected " + index + " in plan of " + sql + ":\n" + plan);
+    }
+
+}
@@ -0,0 +1,245 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.EntityFixtures;
+import ru.practicum.shareit.util.exception.BookingConflictException;
+import ru.practicum.shareit.util.exception.UnsupportedStateException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.util.CrudOperations.bookingRequest;
+
+/**
+ * Many threads booking and approving at once: overlapping approved bookings of one item must never appear,
+ * and a locked item must not hold up bookings of other items.
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BookingConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 25;
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EntityFixtures fixtures;
+    private ExecutorService executor;
+    private User owner;
+    private final List<User> bookers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new EntityFixtures(userRepository, itemRepository);
+        executor = Executors.newFixedThreadPool(THREADS + 2);
+        owner = fixtures.user("owner");
+        bookers.clear();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(fixtures.user("booker" + i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void createAndApprove_whenThreadsRaceForOneItem_thenApprovedBookingsNeverOverlap() throws Exception {
+        Item item = fixtures.item(owner);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runConcurrently(booker -> {
+            Random random = new Random(booker.getId());
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = BASE.plusHours(random.nextInt(48));
+                try {
+                    long bookingId = bookingService.createBooking(bookingRequest(item.getId(), start, start.plusHours(3)), booker.getId()).getId();
+                    bookingService.updateBooking(bookingId, true, owner.getId());
+                    approved.incrementAndGet();
+                } catch (BookingConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * ROUNDS, approved.get() + conflicts.get());
+        assertTrue(approved.get() > 0);
+        assertTrue(conflicts.get() > 0);
+
+        List<Booking> approvedBookings = bookingRepository.findAll().stream()
+                .filter(b -> b.getStatus() == BookingState.APPROVED)
+                .collect(Collectors.toList());
+        assertEquals(approved.get(), approvedBookings.size());
+        for (Booking first : approvedBookings) {
+            for (Booking second : approvedBookings) {
+                if (first.getId() != second.getId()) {
+                    assertFalse(first.getStart().isBefore(second.getEnd()) && second.getStart().isBefore(first.getEnd()),
+                            "Bookings " + first.getId() + " and " + second.getId() + " overlap");
+                }
+            }
+        }
+    }
+
+    @Test
+    void createAndApprove_whenThreadsBookDistinctItems_thenNotBlockedByLockedItem() throws Exception {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            items.add(fixtures.item(owner));
+        }
+        Item lockedItem = fixtures.item(owner);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger approved = new AtomicInteger();
+
+        Future<?> lockHolder = lockUntilReleased(lockedItem, locked, release);
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        runConcurrently(booker -> {
+            Item item = items.get(bookers.indexOf(booker));
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = BASE.plusHours(round * 3L);
+                long bookingId = bookingService.createBooking(bookingRequest(item.getId(), start, start.plusHours(3)), booker.getId()).getId();
+                bookingService.updateBooking(bookingId, true, owner.getId());
+                approved.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertFalse(lockHolder.isDone());
+        assertEquals(THREADS * ROUNDS, approved.get());
+
+        release.countDown();
+        lockHolder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void updateBooking_whenThreadsDecideOneBooking_thenOnlyFirstDecisionApplies() throws Exception {
+        Item item = fixtures.item(owner);
+        long bookingId = bookingService.createBooking(bookingRequest(item.getId(), BASE, BASE.plusHours(1)), bookers.get(0).getId()).getId();
+        AtomicInteger decided = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        runConcurrently(booker -> {
+            try {
+                bookingService.updateBooking(bookingId, bookers.indexOf(booker) % 2 == 0, owner.getId());
+                decided.incrementAndGet();
+            } catch (UnsupportedStateException e) {
+                refused.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertEquals(1, decided.get());
+        assertEquals(THREADS - 1, refused.get());
+        assertEquals(1, bookingRepository.findById(bookingId).orElseThrow().getVersion());
+    }
+
+    @Test
+    void createBooking_whenAnotherItemLocked_thenNotBlocked() throws Exception {
+        Item lockedItem = fixtures.item(owner);
+        Item freeItem = fixtures.item(owner);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> lockHolder = lockUntilReleased(lockedItem, locked, release);
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        Future<?> sameItem = executor.submit(() ->
+                bookingService.createBooking(bookingRequest(lockedItem.getId(), BASE, BASE.plusHours(1)), bookers.get(0).getId()));
+        executor.submit(() ->
+                bookingService.createBooking(bookingRequest(freeItem.getId(), BASE, BASE.plusHours(1)), bookers.get(1).getId()))
+                .get(5, TimeUnit.SECONDS);
+
+        Thread.sleep(200);
+        assertFalse(sameItem.isDone());
+
+        release.countDown();
+        lockHolder.get(5, TimeUnit.SECONDS);
+        sameItem.get(5, TimeUnit.SECONDS);
+    }
+
+    private void runConcurrently(BookerTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (User booker : bookers) {
+            Callable<Void> callable = () -> {
+                start.await();
+                return task.run(booker);
+            };
+            futures.add(executor.submit(callable));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Holds the item's lock in a transaction of its own until {@code release} counts down.
+     */
+    private Future<?> lockUntilReleased(Item item, CountDownLatch locked, CountDownLatch release) {
+        return executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemRepository.findByIdForUpdate(item.getId());
+            locked.countDown();
+            try {
+                release.await(60, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+
+    @FunctionalInterface
+    private interface BookerTask {
+        Void run(User booker) throws Exception;
+    }
+}
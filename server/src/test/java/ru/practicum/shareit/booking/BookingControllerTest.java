@@ -5,10 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.model.BookingState;
@@ -16,7 +20,9 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.util.CrudOperations;
 import ru.practicum.shareit.util.exception.AccessDenyException;
+import ru.practicum.shareit.util.exception.BookingConflictException;
 import ru.practicum.shareit.util.exception.BookingNotFoundException;
+import ru.practicum.shareit.util.exception.DuplicateBookingDecisionException;
 import ru.practicum.shareit.util.exception.ItemNotAvailbaleException;
 import ru.practicum.shareit.util.exception.UnsupportedStateException;
 
@@ -24,7 +30,9 @@ import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -48,6 +56,19 @@ class BookingControllerTest extends CrudOperations {
 
     private static final Validator VALIDATOR;
 
+    /**
+     * The bookings of these tests are dated autumn 2023, the server sees them from before then.
+     */
+    @TestConfiguration
+    static class FixedClockConfig {
+        @Bean
+        @Primary
+        Clock fixedClock() {
+            ZoneId zone = ZoneId.systemDefault();
+            return Clock.fixed(LocalDateTime.of(2023, 9, 1, 9, 0).atZone(zone).toInstant(), zone);
+        }
+    }
+
     static {
         ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
         VALIDATOR = validatorFactory.usingContext().getValidator();
@@ -127,8 +148,8 @@ class BookingControllerTest extends CrudOperations {
                         .header("X-Sharer-User-Id", String.valueOf(bookerId)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(response.getId()))
-                .andExpect(jsonPath("$.start").value(response.getStart()))
-                .andExpect(jsonPath("$.end").value(response.getEnd()))
+                .andExpect(jsonPath("$.start").value(DATE_TIME.format(response.getStart())))
+                .andExpect(jsonPath("$.end").value(DATE_TIME.format(response.getEnd())))
                 .andExpect(jsonPath("$.booker.id").value(response.getBooker().getId()))
                 .andExpect(jsonPath("$.item.id").value(response.getItem().getId()))
                 .andReturn();
@@ -228,6 +249,87 @@ class BookingControllerTest extends CrudOperations {
                         instanceof AccessDenyException));
     }
 
+    @Test
+    void updateBookings_whenValid_thenReturnDecidedBookings() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        long itemId = createItem(ItemDto.builder().name("Item").description("Description").available(true).build(), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+        long firstId = createBooking(bookingRequest(itemId, start, start.plusDays(1)), bookerId).getId();
+        long secondId = createBooking(bookingRequest(itemId, start.plusDays(2), start.plusDays(3)), bookerId).getId();
+        List<BookingDecisionDto> decisions = List.of(
+                new BookingDecisionDto(secondId, false),
+                new BookingDecisionDto(firstId, true)
+        );
+
+        mockMvc.perform(patch("/bookings")
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(secondId))
+                .andExpect(jsonPath("$[0].status").value(String.valueOf(BookingState.REJECTED)))
+                .andExpect(jsonPath("$[1].id").value(firstId))
+                .andExpect(jsonPath("$[1].status").value(String.valueOf(BookingState.APPROVED)));
+
+        mockMvc.perform(patch("/bookings")
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(result -> assertTrue(result.getResolvedException()
+                        instanceof UnsupportedStateException));
+    }
+
+    @Test
+    void updateBookings_whenApprovalsOverlap_thenNoneDecided() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        long itemId = createItem(ItemDto.builder().name("Item").description("Description").available(true).build(), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+        long firstId = createBooking(bookingRequest(itemId, start, start.plusDays(2)), bookerId).getId();
+        long secondId = createBooking(bookingRequest(itemId, start.plusDays(1), start.plusDays(3)), bookerId).getId();
+        List<BookingDecisionDto> decisions = List.of(
+                new BookingDecisionDto(firstId, true),
+                new BookingDecisionDto(secondId, true)
+        );
+
+        mockMvc.perform(patch("/bookings")
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isConflict())
+                .andExpect(result -> assertTrue(result.getResolvedException()
+                        instanceof BookingConflictException));
+
+        mockMvc.perform(get("/bookings/{bookingId}", firstId)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(jsonPath("$.status").value(String.valueOf(BookingState.WAITING)));
+    }
+
+    @Test
+    void updateBookings_whenBookingDecidedTwice_thenBadRequest() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        long itemId = createItem(ItemDto.builder().name("Item").description("Description").available(true).build(), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+        long bookingId = createBooking(bookingRequest(itemId, start, start.plusDays(1)), bookerId).getId();
+        List<BookingDecisionDto> decisions = List.of(
+                new BookingDecisionDto(bookingId, true),
+                new BookingDecisionDto(bookingId, false)
+        );
+
+        mockMvc.perform(patch("/bookings")
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertTrue(result.getResolvedException()
+                        instanceof DuplicateBookingDecisionException));
+    }
+
     @Test
     void getBookingsByUserByState_whenValid_thenReturnBookingsList() throws Exception {
         UserDto ownerDto = UserDto.builder().name("Mark").email("mark@email.com").build();
@@ -579,5 +681,4 @@ class BookingControllerTest extends CrudOperations {
                 .andExpect(result -> assertTrue(result.getResolvedException()
                         instanceof UnsupportedStateException));
     }
-
-}
\ No newline at end of file
+}
@@ -44,6 +44,9 @@ class BookingDataJpaTest {
 
     private long bookingId1, bookingId2, bookingId3;
 
+    // the bookings below are all ahead of it
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 9, 1, 9, 0, 0);
+
     private static final Pageable PAGE = PageRequest.of(FROM / SIZE, SIZE, Sort.by("start").descending());
 
     @BeforeEach
@@ -95,9 +98,9 @@ class BookingDataJpaTest {
         bookingId2 = booking2.getId();
         bookingId3 = booking3.getId();
 
-        bookingRepository.updateBookingStatusById(bookingId1, true);
-        bookingRepository.updateBookingStatusById(bookingId2, true);
-        bookingRepository.updateBookingStatusById(bookingId3, false);
+        bookingRepository.updateStatusIfWaiting(bookingId1, ownerId, BookingState.APPROVED);
+        bookingRepository.updateStatusIfWaiting(bookingId2, ownerId, BookingState.APPROVED);
+        bookingRepository.updateStatusIfWaiting(bookingId3, ownerId, BookingState.REJECTED);
     }
 
     @Test
@@ -130,7 +133,7 @@ class BookingDataJpaTest {
     @SneakyThrows
     void findAllByBookerIdCurrent() {
         List<Booking> actual = bookingRepository
-                .findAllByBookerIdCurrent(bookerId, PAGE);
+                .findAllByBookerIdCurrent(bookerId, NOW, PAGE);
         List<Booking> expect = Collections.emptyList();
         assertEquals(expect, actual);
     }
@@ -139,7 +142,7 @@ class BookingDataJpaTest {
     @SneakyThrows
     void findAllByBookerIdPast() {
         List<Booking> actual = bookingRepository
-                .findAllByBookerIdPast(bookerId, PAGE);
+                .findAllByBookerIdPast(bookerId, NOW, PAGE);
         List<Booking> expect = Collections.emptyList();
         assertEquals(expect, actual);
     }
@@ -148,7 +151,7 @@ class BookingDataJpaTest {
     @SneakyThrows
     void findAllByBookerIdFuture() {
         List<Booking> actual = bookingRepository
-                .findAllByBookerIdFuture(bookerId, PAGE);
+                .findAllByBookerIdFuture(bookerId, NOW, PAGE);
         List<Booking> expect = new ArrayList<>();
         expect.add(bookingRepository.findById(bookingId1).get());
         expect.add(bookingRepository.findById(bookingId2).get());
@@ -172,7 +175,7 @@ class BookingDataJpaTest {
     @SneakyThrows
     void findAllByItemOwnerIdCurrentOrderByStartDesc() {
         List<Booking> actual = bookingRepository
-                .findAllByItemOwnerIdCurrentOrderByStartDesc(ownerId, PAGE);
+                .findAllByItemOwnerIdCurrentOrderByStartDesc(ownerId, NOW, PAGE);
         List<Booking> expect = Collections.emptyList();
         assertEquals(expect, actual);
     }
@@ -181,7 +184,7 @@ class BookingDataJpaTest {
     @SneakyThrows
     void findAllByItemOwnerIdPastOrderByStartDesc() {
         List<Booking> actual = bookingRepository
-                .findAllByItemOwnerIdPastOrderByStartDesc(ownerId, PAGE);
+                .findAllByItemOwnerIdPastOrderByStartDesc(ownerId, NOW, PAGE);
         List<Booking> expect = Collections.emptyList();
         assertEquals(expect, actual);
     }
@@ -190,7 +193,7 @@ class BookingDataJpaTest {
     @SneakyThrows
     void findAllByItemOwnerIdFutureOrderByStartDesc() {
         List<Booking> actual = bookingRepository
-                .findAllByItemOwnerIdFutureOrderByStartDesc(ownerId, PAGE);
+                .findAllByItemOwnerIdFutureOrderByStartDesc(ownerId, NOW, PAGE);
         List<Booking> expect = new ArrayList<>();
         expect.add(bookingRepository.findById(bookingId1).get());
         expect.add(bookingRepository.findById(bookingId2).get());
@@ -214,19 +217,35 @@ class BookingDataJpaTest {
 
     @Test
     @SneakyThrows
-    void findNextClosestBookingByOwnerId() {
+    void findAllByBookerIdAfterCursor_whenStartsEqual_thenSeekByIdWithoutGapsOrRepeats() {
+        LocalDateTime maxStart = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+        List<Booking> firstPage = bookingRepository
+                .findAllByBookerIdAfterCursor(bookerId, maxStart, Long.MAX_VALUE, PageRequest.of(0, 2));
+        Booking last = firstPage.get(firstPage.size() - 1);
+        List<Booking> secondPage = bookingRepository
+                .findAllByBookerIdAfterCursor(bookerId, last.getStart(), last.getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of(bookingId3, bookingId2), List.of(firstPage.get(0).getId(), firstPage.get(1).getId()));
+        assertEquals(1, secondPage.size());
+        assertEquals(bookingId1, secondPage.get(0).getId());
+    }
+
+    @Test
+    @SneakyThrows
+    void findNextClosestBookingsByItemIds() {
         BookingClosest next = bookingRepository
-                .findNextClosestBookingByOwnerId(ownerId, itemId)
+                .findNextClosestBookingsByItemIds(List.of(itemId), NOW)
                 .get(0);
 
         assertEquals(next.getBookerId(), bookerId);
+        assertEquals(next.getItemId(), itemId);
     }
 
     @Test
     @SneakyThrows
-    void findLastClosestBookingByOwnerId() {
+    void findLastClosestBookingsByItemIds() {
         List<BookingClosest> last = bookingRepository
-                .findLastClosestBookingByOwnerId(ownerId, itemId);
+                .findLastClosestBookingsByItemIds(List.of(itemId), NOW);
 
         assertEquals(last.size(), 0);
     }
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@JsonTest
+public class BookingDtoResponseJsonTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @SneakyThrows
+    public void testSerialize() {
+        BookingDtoResponse bookingDto = BookingDtoResponse.builder()
+                .id(1L)
+                .start(LocalDateTime.of(2023, 7, 7, 10, 0))
+                .end(LocalDateTime.of(2023, 7, 7, 12, 0, 30))
+                .status("WAITING")
+                .build();
+
+        String json = objectMapper.writeValueAsString(bookingDto);
+
+        String expectedJson = "{\"id\":1,\"start\":\"2023-07-07T10:00:00\",\"end\":\"2023-07-07T12:00:30\"," +
+                "\"status\":\"WAITING\",\"booker\":null,\"item\":null}";
+        assertEquals(expectedJson, json);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testDeserialize() {
+        String json = "{\"id\":1,\"start\":\"2023-07-07T10:00:00\",\"end\":\"2023-07-07T12:00:30\",\"status\":\"WAITING\"}";
+
+        BookingDtoResponse bookingDto = objectMapper.readValue(json, BookingDtoResponse.class);
+
+        assertEquals(LocalDateTime.of(2023, 7, 7, 10, 0), bookingDto.getStart());
+        assertEquals(LocalDateTime.of(2023, 7, 7, 12, 0, 30), bookingDto.getEnd());
+    }
+
+    @Test
+    public void testMapListSharesItemAndBooker() {
+        User user = new User();
+        user.setId(2L);
+        Item item = new Item();
+        item.setId(1L);
+        Booking first = booking(1L, item, user);
+        Booking second = booking(2L, item, user);
+
+        List<BookingDtoResponse> bookingDtos = BookingMapper.toBookingDto(List.of(first, second));
+
+        assertEquals(2, bookingDtos.size());
+        assertEquals(1L, bookingDtos.get(0).getId());
+        assertEquals(2L, bookingDtos.get(1).getId());
+        assertEquals(1L, bookingDtos.get(0).getItem().getId());
+        assertEquals(2L, bookingDtos.get(0).getBooker().getId());
+        assertSame(bookingDtos.get(0).getItem(), bookingDtos.get(1).getItem());
+        assertSame(bookingDtos.get(0).getBooker(), bookingDtos.get(1).getBooker());
+    }
+
+    private static Booking booking(long id, Item item, User booker) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(LocalDateTime.of(2023, 7, 7, 10, 0));
+        booking.setEnd(LocalDateTime.of(2023, 7, 7, 12, 0));
+        booking.setStatus(BookingState.WAITING);
+        return booking;
+    }
+}
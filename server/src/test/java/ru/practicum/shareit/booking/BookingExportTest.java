@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CrudOperations;
+import ru.practicum.shareit.util.exception.UnsupportedExportFormatException;
+import ru.practicum.shareit.util.exception.UserNotFoundException;
+import ru.practicum.shareit.util.metrics.QueryCountFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingExportTest extends CrudOperations {
+
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS).plusSeconds(30);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void exportOwnerItemsBooked_whenNdjson_thenOneBookingPerLineNewestFirst() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        long drillId = createItem(item("Drill"), ownerId).getId();
+        long sawId = createItem(item("Saw"), ownerId).getId();
+        long first = createBooking(bookingRequest(drillId, BASE), bookerId).getId();
+        long second = createBooking(bookingRequest(sawId, BASE.plusDays(1)), bookerId).getId();
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        BookingDtoResponse newest = objectMapper.readValue(lines[0], BookingDtoResponse.class);
+        assertEquals(second, newest.getId());
+        assertEquals("Saw", newest.getItem().getName());
+        assertEquals(bookerId, newest.getBooker().getId());
+        assertEquals(BASE.plusDays(1), newest.getStart());
+        assertEquals(first, objectMapper.readValue(lines[1], BookingDtoResponse.class).getId());
+    }
+
+    @Test
+    void exportOwnerItemsBooked_whenCsv_thenHeaderAndQuotedFields() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma \"T\", Jr").email("toma@email.com").build()).getId();
+        long itemId = createItem(item("Drill, cordless"), ownerId).getId();
+        long bookingId = createBooking(bookingRequest(itemId, BASE), bookerId).getId();
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .param("format", "csv")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\""))
+                .andExpect(content().string("id,start,end,status,item_id,item_name,booker_id,booker_name\n"
+                        + bookingId + "," + BASE + "," + BASE.plusHours(3) + ",WAITING," + itemId
+                        + ",\"Drill, cordless\"," + bookerId + ",\"Toma \"\"T\"\", Jr\"\n"));
+    }
+
+    @Test
+    void exportOwnerItemsBooked_whenManyBookings_thenReadInOneSelect() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        long itemId = createItem(item("Drill"), ownerId).getId();
+        int rows = 1200;
+        List<Booking> bookings = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Booking booking = new Booking();
+            booking.setItem(itemRepository.getReferenceById(itemId));
+            booking.setBooker(userRepository.getReferenceById(bookerId));
+            booking.setStart(BASE.plusHours(i));
+            booking.setEnd(BASE.plusHours(i + 1));
+            booking.setStatus(BookingState.APPROVED);
+            bookings.add(booking);
+        }
+        bookingRepository.saveAll(bookings);
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(rows, result.getResponse().getContentAsString().split("\n").length);
+        DistributionSummary queries = meterRegistry.get(QueryCountFilter.METRIC_NAME)
+                .tag("uri", "/bookings/owner/export")
+                .summary();
+        assertEquals(2, queries.totalAmount());
+    }
+
+    @Test
+    void exportOwnerItemsBooked_whenOwnerNotFound_thenUserNotFoundException() throws Exception {
+        mockMvc.perform(get("/bookings/owner/export")
+                        .param("format", "csv")
+                        .header("X-Sharer-User-Id", "9999"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(result -> assertTrue(result.getResolvedException()
+                        instanceof UserNotFoundException));
+    }
+
+    @Test
+    void exportOwnerItemsBooked_whenFormatUnknown_thenBadRequest() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .param("format", "xml")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertTrue(result.getResolvedException()
+                        instanceof UnsupportedExportFormatException));
+    }
+}
@@ -8,6 +8,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -15,22 +17,34 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.item.cache.ItemCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.exception.AccessDenyException;
+import ru.practicum.shareit.util.exception.BookingConflictException;
 import ru.practicum.shareit.util.exception.BookingNotFoundException;
 import ru.practicum.shareit.util.exception.ItemNotAvailbaleException;
 import ru.practicum.shareit.util.exception.UnsupportedStateException;
+import ru.practicum.shareit.util.exception.UserNotFoundException;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +57,14 @@ class BookingServiceUnitTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemCache itemCache;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Mock
+    private Clock clock;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 9, 1, 9, 0);
 
     @Test
     void createBooking_whenValid_thenReturnBooking() {
@@ -68,12 +90,42 @@ class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
         when(bookingRepository.save(booking)).thenReturn(booking);
 
         BookingDtoResponse expect = BookingMapper.toBookingDto(booking);
         BookingDtoResponse actual = bookingService.createBooking(request, userId);
         assertEquals(expect, actual);
+        verify(itemBookingSummaryService).bookingCreated(booking);
+    }
+
+    @Test
+    void createBooking_whenApprovedBookingOverlaps_thenBookingConflictException() {
+        User owner = new User();
+        owner.setId(1L);
+
+        User booker = new User();
+        long userId = 2L;
+        booker.setId(userId);
+
+        Item item = new Item();
+        long itemId = 1L;
+        item.setOwner(owner);
+        item.setId(itemId);
+        item.setAvailable(true);
+
+        BookingDtoRequest request = new BookingDtoRequest();
+        request.setItemId(itemId);
+        request.setStart(LocalDateTime.now());
+        request.setEnd(LocalDateTime.now().plusHours(1));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
+        when(bookingRepository.existsApprovedOverlapping(itemId, request.getStart(), request.getEnd(), 0L))
+                .thenReturn(true);
+
+        assertThrows(BookingConflictException.class, () -> bookingService.createBooking(request, userId));
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -100,7 +152,7 @@ class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
 
         assertThrows(
                 ItemNotAvailbaleException.class,
@@ -132,7 +184,7 @@ class BookingServiceUnitTest {
         booking.setStatus(BookingState.WAITING);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
 
         assertThrows(
                 BookingNotFoundException.class,
@@ -165,14 +217,15 @@ class BookingServiceUnitTest {
         Booking booking = BookingMapper.fromBookingDtoRequest(request, booker, item);
         long bookingId = 1L;
         booking.setId(bookingId);
+        booking.setStatus(BookingState.REJECTED);
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusIfWaiting(bookingId, ownerId, BookingState.REJECTED)).thenReturn(1);
+        when(bookingRepository.findWithItemAndBookerById(bookingId)).thenReturn(Optional.of(booking));
 
         BookingDtoResponse expect = BookingMapper.toBookingDto(booking);
-        expect.setStatus("REJECTED");
         BookingDtoResponse actual = bookingService.updateBooking(bookingId, approved, ownerId);
         assertEquals(expect, actual);
+        verify(userRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -202,7 +255,7 @@ class BookingServiceUnitTest {
         booking.setId(bookingId);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findWithItemAndBookerById(bookingId)).thenReturn(Optional.of(booking));
 
         assertThrows(AccessDenyException.class,
                 () -> bookingService.updateBooking(bookingId, approved, userId)
@@ -236,14 +289,167 @@ class BookingServiceUnitTest {
         booking.setId(bookingId);
         booking.setStatus(BookingState.APPROVED);
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(itemRepository.findByBookingIdAndOwnerIdForUpdate(bookingId, ownerId)).thenReturn(Optional.of(item));
+        when(bookingRepository.approveIfWaitingAndFree(bookingId, ownerId)).thenReturn(0);
+        when(bookingRepository.findWithItemAndBookerById(bookingId)).thenReturn(Optional.of(booking));
 
         assertThrows(UnsupportedStateException.class,
                 () -> bookingService.updateBooking(bookingId, approved, ownerId)
         );
     }
 
+    @Test
+    void updateBooking_whenDecidedConcurrently_thenUnsupportedStateException() {
+        User owner = new User();
+        long ownerId = 1L;
+        owner.setId(ownerId);
+
+        Item item = new Item();
+        item.setOwner(owner);
+        item.setId(1L);
+        item.setAvailable(true);
+
+        Booking booking = new Booking();
+        long bookingId = 1L;
+        booking.setId(bookingId);
+        booking.setItem(item);
+        booking.setStatus(BookingState.WAITING);
+
+        when(bookingRepository.updateStatusIfWaiting(bookingId, ownerId, BookingState.REJECTED)).thenReturn(0);
+        when(bookingRepository.findWithItemAndBookerById(bookingId)).thenReturn(Optional.of(booking));
+
+        assertThrows(UnsupportedStateException.class,
+                () -> bookingService.updateBooking(bookingId, false, ownerId)
+        );
+        verify(itemCache, never()).evictItem(anyLong());
+    }
+
+    @Test
+    void updateBooking_whenApprovalOverlapsApprovedBooking_thenBookingConflictException() {
+        User owner = new User();
+        long ownerId = 1L;
+        owner.setId(ownerId);
+
+        Item item = new Item();
+        item.setOwner(owner);
+        item.setId(1L);
+        item.setAvailable(true);
+
+        Booking booking = new Booking();
+        long bookingId = 1L;
+        booking.setId(bookingId);
+        booking.setItem(item);
+        booking.setStatus(BookingState.WAITING);
+
+        when(itemRepository.findByBookingIdAndOwnerIdForUpdate(bookingId, ownerId)).thenReturn(Optional.of(item));
+        when(bookingRepository.approveIfWaitingAndFree(bookingId, ownerId)).thenReturn(0);
+        when(bookingRepository.findWithItemAndBookerById(bookingId)).thenReturn(Optional.of(booking));
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.updateBooking(bookingId, true, ownerId)
+        );
+        verify(itemCache, never()).evictItem(anyLong());
+    }
+
+    @Test
+    void updateBooking_whenUserNotFound_thenUserNotFoundException() {
+        when(bookingRepository.updateStatusIfWaiting(1L, 99L, BookingState.REJECTED)).thenReturn(0);
+
+        assertThrows(UserNotFoundException.class,
+                () -> bookingService.updateBooking(1L, false, 99L)
+        );
+    }
+
+    @Test
+    void updateBookings_whenValid_thenDecideAllAndEvictItems() {
+        User owner = new User();
+        long ownerId = 1L;
+        owner.setId(ownerId);
+
+        Item item = new Item();
+        item.setOwner(owner);
+        item.setId(1L);
+        item.setAvailable(true);
+
+        Booking approved = waitingBooking(1L, item, LocalDateTime.now().plusDays(1));
+        Booking rejected = waitingBooking(2L, item, LocalDateTime.now().plusDays(1));
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false));
+
+        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(Set.of(1L, 2L))).thenReturn(List.of(rejected, approved));
+        when(bookingRepository.findAllApprovedOverlapping(any(), any(), any())).thenReturn(Collections.emptyList());
+
+        List<BookingDtoResponse> actual = bookingService.updateBookings(decisions, ownerId);
+
+        assertEquals(List.of(1L, 2L), List.of(actual.get(0).getId(), actual.get(1).getId()));
+        assertEquals(BookingState.APPROVED, approved.getStatus());
+        assertEquals(BookingState.REJECTED, rejected.getStatus());
+        verify(itemRepository).findAllByIdInForUpdate(Set.of(1L));
+        verify(bookingRepository).flush();
+        verify(itemBookingSummaryService).bookingsDecided(List.of(approved, rejected));
+        verify(itemCache).evictItem(1L);
+    }
+
+    @Test
+    void updateBookings_whenOneNotOwned_thenAccessDenyException() {
+        User owner = new User();
+        owner.setId(1L);
+        User other = new User();
+        long otherId = 2L;
+        other.setId(otherId);
+
+        Item item = new Item();
+        item.setOwner(owner);
+        item.setId(1L);
+
+        Booking booking = waitingBooking(1L, item, LocalDateTime.now().plusDays(1));
+
+        when(userRepository.findById(otherId)).thenReturn(Optional.of(other));
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(Set.of(1L))).thenReturn(List.of(booking));
+
+        assertThrows(AccessDenyException.class,
+                () -> bookingService.updateBookings(List.of(new BookingDecisionDto(1L, true)), otherId)
+        );
+        assertEquals(BookingState.WAITING, booking.getStatus());
+        verify(bookingRepository, never()).flush();
+    }
+
+    @Test
+    void updateBookings_whenOneMissing_thenBookingNotFoundException() {
+        User owner = new User();
+        long ownerId = 1L;
+        owner.setId(ownerId);
+
+        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(Set.of(1L))).thenReturn(Collections.emptyList());
+
+        assertThrows(BookingNotFoundException.class,
+                () -> bookingService.updateBookings(List.of(new BookingDecisionDto(1L, false)), ownerId)
+        );
+    }
+
+    @Test
+    void updateBookings_whenDecidedConcurrently_thenUnsupportedStateException() {
+        User owner = new User();
+        long ownerId = 1L;
+        owner.setId(ownerId);
+
+        Item item = new Item();
+        item.setOwner(owner);
+        item.setId(1L);
+
+        Booking booking = waitingBooking(1L, item, LocalDateTime.now().plusDays(1));
+
+        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(Set.of(1L))).thenReturn(List.of(booking));
+        doThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L)).when(bookingRepository).flush();
+
+        assertThrows(UnsupportedStateException.class,
+                () -> bookingService.updateBookings(List.of(new BookingDecisionDto(1L, false)), ownerId)
+        );
+        verify(itemCache, never()).evictItem(anyLong());
+    }
+
     @Test
     void getBookingsByUserByState_whenValid_thenReturnBookingsList() {
         int from = 0, size = 10;
@@ -291,13 +497,14 @@ class BookingServiceUnitTest {
         booking3.setStatus(BookingState.WAITING);
 
         when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        fixClock();
         when(bookingRepository.findAllByBookerIdOrderByStartDesc(bookerId, page))
                 .thenReturn(List.of(booking1, booking2, booking3));
-        when(bookingRepository.findAllByBookerIdCurrent(bookerId, page))
+        when(bookingRepository.findAllByBookerIdCurrent(bookerId, NOW, page))
                 .thenReturn(List.of(booking1, booking2, booking3));
-        when(bookingRepository.findAllByBookerIdPast(bookerId, page))
+        when(bookingRepository.findAllByBookerIdPast(bookerId, NOW, page))
                 .thenReturn(Collections.emptyList());
-        when(bookingRepository.findAllByBookerIdFuture(bookerId, page))
+        when(bookingRepository.findAllByBookerIdFuture(bookerId, NOW, page))
                 .thenReturn(Collections.emptyList());
         when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(bookerId, BookingState.REJECTED, page))
                 .thenReturn(List.of(booking3));
@@ -373,13 +580,14 @@ class BookingServiceUnitTest {
         booking3.setStatus(BookingState.WAITING);
 
         when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        fixClock();
         when(bookingRepository.findAllByItemOwnerIdOrderByStartDesc(ownerId, page))
                 .thenReturn(List.of(booking1, booking2, booking3));
-        when(bookingRepository.findAllByItemOwnerIdCurrentOrderByStartDesc(ownerId, page))
+        when(bookingRepository.findAllByItemOwnerIdCurrentOrderByStartDesc(ownerId, NOW, page))
                 .thenReturn(List.of(booking1, booking2, booking3));
-        when(bookingRepository.findAllByItemOwnerIdPastOrderByStartDesc(ownerId, page))
+        when(bookingRepository.findAllByItemOwnerIdPastOrderByStartDesc(ownerId, NOW, page))
                 .thenReturn(Collections.emptyList());
-        when(bookingRepository.findAllByItemOwnerIdFutureOrderByStartDesc(ownerId, page))
+        when(bookingRepository.findAllByItemOwnerIdFutureOrderByStartDesc(ownerId, NOW, page))
                 .thenReturn(Collections.emptyList());
         when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingState.REJECTED, page))
                 .thenReturn(List.of(booking3));
@@ -473,4 +681,23 @@ class BookingServiceUnitTest {
         assertThrows(AccessDenyException.class,
                 () -> bookingService.getBookingById(bookingId, userId));
     }
-}
\ No newline at end of file
+
+    private static Booking waitingBooking(long bookingId, Item item, LocalDateTime start) {
+        User booker = new User();
+        booker.setId(10L);
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(1));
+        booking.setStatus(BookingState.WAITING);
+        return booking;
+    }
+
+    private void fixClock() {
+        ZoneId zone = ZoneId.systemDefault();
+        when(clock.getZone()).thenReturn(zone);
+        when(clock.instant()).thenReturn(NOW.atZone(zone).toInstant());
+    }
+}
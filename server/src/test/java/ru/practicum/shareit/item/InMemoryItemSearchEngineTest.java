@@ -0,0 +1,148 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+
+    @InjectMocks
+    private InMemoryItemSearchEngine searchEngine;
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Test
+    void rebuild_whenItemsInRepository_thenIndexOnlyAvailable() {
+        Item drill = item(1L, "Дрель", "Аккумуляторная дрель", true);
+        Item saw = item(2L, "Пила", "Для дрели не подходит", true);
+        Item brokenDrill = item(3L, "Дрель", "Сломана", false);
+
+        when(itemRepository.findAllByIdGreaterThanOrderById(anyLong(), any()))
+                .thenReturn(List.of(drill, saw, brokenDrill));
+        searchEngine.rebuild();
+
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(saw, drill));
+        assertEquals(List.of(drill, saw), searchEngine.search("ДРЕЛ", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void search_whenSeveralWords_thenItemMustContainAll() {
+        searchEngine.index(item(1L, "Дрель", "Аккумуляторная дрель", true));
+        searchEngine.index(item(2L, "Дрель", "Ударная", true));
+
+        Item expected = item(1L, "Дрель", "Аккумуляторная дрель", true);
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(expected));
+        assertEquals(List.of(expected), searchEngine.search("дрель акку", PageRequest.of(0, 10)));
+        assertEquals(Collections.emptyList(), searchEngine.search("дрель пила", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void search_whenPaged_thenReturnRequestedWindow() {
+        for (long id = 1; id <= 5; id++) {
+            searchEngine.index(item(id, "Item " + id, "Description", true));
+        }
+
+        Item third = item(3L, "Item 3", "Description", true);
+        Item fourth = item(4L, "Item 4", "Description", true);
+        when(itemRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(third, fourth));
+        assertEquals(List.of(third, fourth), searchEngine.search("item", PageRequest.of(1, 2)));
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldWordsNoLongerMatch() {
+        searchEngine.index(item(1L, "Дрель", "Аккумуляторная", true));
+        searchEngine.index(item(1L, "Пила", "Ручная", true));
+
+        assertEquals(Collections.emptyList(), searchEngine.search("дрель", PageRequest.of(0, 10)));
+
+        Item saw = item(1L, "Пила", "Ручная", true);
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(saw));
+        assertEquals(List.of(saw), searchEngine.search("ручн", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void index_whenItemBecomesUnavailable_thenRemoveFromIndex() {
+        searchEngine.index(item(1L, "Дрель", "Аккумуляторная", true));
+        searchEngine.index(item(1L, "Дрель", "Аккумуляторная", false));
+
+        assertEquals(Collections.emptyList(), searchEngine.search("дрель", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void remove_whenItemDeleted_thenNotFound() {
+        searchEngine.index(item(1L, "Дрель", "Аккумуляторная", true));
+        searchEngine.remove(1L);
+
+        assertEquals(Collections.emptyList(), searchEngine.search("дрель", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void search_whenShortPrefixMatchesManyWords_thenEachItemOnce() {
+        searchEngine.index(item(1L, "Дрель", "Дрель дрелька", true));
+        searchEngine.index(item(2L, "Древо", "Дрожь", true));
+        searchEngine.index(item(3L, "Пила", "Ручная", true));
+
+        Item first = item(1L, "Дрель", "Дрель дрелька", true);
+        Item second = item(2L, "Древо", "Дрожь", true);
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        assertEquals(List.of(first, second), searchEngine.search("д", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void index_whenTransactionRolledBack_thenNotIndexed() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchEngine.index(item(1L, "Дрель", "Аккумуляторная", true));
+            assertEquals(Collections.emptyList(), searchEngine.search("дрель", PageRequest.of(0, 10)));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Collections.emptyList(), searchEngine.search("дрель", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void index_whenTransactionCommitted_thenIndexed() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            searchEngine.index(item(1L, "Дрель", "Аккумуляторная", true));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Item drill = item(1L, "Дрель", "Аккумуляторная", true);
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(drill));
+        assertEquals(List.of(drill), searchEngine.search("дрель", PageRequest.of(0, 10)));
+    }
+
+    private static Item item(long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        return item;
+    }
+
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummarySweeper;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CrudOperations;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemBookingSummaryTest extends CrudOperations {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemBookingSummarySweeper itemBookingSummarySweeper;
+
+    @Test
+    void createItem_whenCreated_thenEmptySummary() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long itemId = createItem(item("Drill"), ownerId).getId();
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemId).orElseThrow();
+        assertEquals(0, summary.getTotalBookings());
+        assertNull(summary.getNextBooking());
+        assertNull(summary.getLastBooking());
+    }
+
+    @Test
+    void updateBooking_whenApprovedAndRejected_thenSummaryFollows() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        long itemId = createItem(item("Drill"), ownerId).getId();
+        long laterId = createBooking(bookingRequest(itemId, NOW.plusDays(2)), bookerId).getId();
+        long soonerId = createBooking(bookingRequest(itemId, NOW.plusDays(1)), bookerId).getId();
+        long rejectedId = createBooking(bookingRequest(itemId, NOW.plusDays(3)), bookerId).getId();
+        assertEquals(3, itemBookingSummaryRepository.findById(itemId).orElseThrow().getTotalBookings());
+
+        decide(laterId, true, ownerId);
+        decide(soonerId, true, ownerId);
+        decide(rejectedId, false, ownerId);
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemId).orElseThrow();
+        assertEquals(2, summary.getTotalBookings());
+        assertEquals(soonerId, summary.getNextBooking().getId());
+        assertEquals(bookerId, summary.getNextBooking().getBookerId());
+        assertEquals(NOW.plusDays(1), summary.getNextStart());
+        assertNull(summary.getLastBooking());
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextBooking.id").value(soonerId))
+                .andExpect(jsonPath("$.lastBooking").isEmpty());
+    }
+
+    @Test
+    void addComment_whenCommented_thenLastCommentCreatedSet() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        long itemId = createItem(item("Drill"), ownerId).getId();
+        booking(itemId, bookerId, NOW.minusDays(2));
+        CommentRequestDto comment = new CommentRequestDto();
+        comment.setText("Works fine");
+
+        mockMvc.perform(post("/items/{itemId}/comment", itemId)
+                        .header("X-Sharer-User-Id", String.valueOf(bookerId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(comment)))
+                .andExpect(status().isOk());
+
+        assertNotNull(itemBookingSummaryRepository.findById(itemId).orElseThrow().getLastCommentCreated());
+    }
+
+    @Test
+    void sweep_whenNextBookingStarted_thenViewFallsBackUntilRebuilt() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long bookerId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        long itemId = createItem(item("Drill"), ownerId).getId();
+        long nextId = createBooking(bookingRequest(itemId, NOW.plusDays(1)), bookerId).getId();
+        decide(nextId, true, ownerId);
+        long startedId = booking(itemId, bookerId, NOW.minusHours(1));
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemId).orElseThrow();
+        summary.setNextBooking(bookingRepository.findById(startedId).orElseThrow());
+        itemBookingSummaryRepository.save(summary);
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextBooking.id").value(nextId))
+                .andExpect(jsonPath("$.lastBooking.id").value(startedId));
+
+        itemBookingSummarySweeper.sweep();
+
+        summary = itemBookingSummaryRepository.findById(itemId).orElseThrow();
+        assertEquals(nextId, summary.getNextBooking().getId());
+        assertEquals(startedId, summary.getLastBooking().getId());
+        assertEquals(2, summary.getTotalBookings());
+    }
+
+    private void decide(long bookingId, boolean approved, long ownerId) throws Exception {
+        mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .param("approved", String.valueOf(approved))
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk());
+    }
+
+    private long booking(long itemId, long bookerId, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setItem(itemRepository.getReferenceById(itemId));
+        booking.setBooker(userRepository.getReferenceById(bookerId));
+        booking.setStart(start);
+        booking.setEnd(start.plusMinutes(30));
+        booking.setStatus(BookingState.APPROVED);
+        return bookingRepository.save(booking).getId();
+    }
+}
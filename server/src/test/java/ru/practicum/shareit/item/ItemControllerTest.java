@@ -24,6 +24,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.CrudOperations;
 import ru.practicum.shareit.util.exception.ItemNotFoundException;
 import ru.practicum.shareit.util.exception.UserNotFoundException;
+import ru.practicum.shareit.util.pagination.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -35,6 +36,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -76,6 +78,37 @@ class ItemControllerTest extends CrudOperations {
                 .andReturn();
     }
 
+    @Test
+    public void shouldReturnNotModifiedWhenETagMatchesUntilItemUpdated() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long itemId = createItem(ItemDto.builder().name("Item").description("Description").available(true).build(), ownerId).getId();
+
+        String eTag = mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/items/{itemId}", itemId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ItemDto.builder().name("Updated").build()))
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Updated"));
+    }
+
     @Test
     public void shouldThrowItemNotFoundExceptionWhenIdIsIncorrect() throws Exception {
         long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
@@ -106,6 +139,45 @@ class ItemControllerTest extends CrudOperations {
                 .andReturn();
     }
 
+    @Test
+    public void shouldGetItemsPageByPageWhenCursorGiven() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long firstId = createItem(ItemDto.builder().name("Item1").description("Description1").available(true).build(), ownerId).getId();
+        long secondId = createItem(ItemDto.builder().name("Item2").description("Description2").available(true).build(), ownerId).getId();
+        long thirdId = createItem(ItemDto.builder().name("Item3").description("Description3").available(true).build(), ownerId).getId();
+
+        MvcResult firstPage = mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId))
+                        .param("after", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(firstId))
+                .andExpect(jsonPath("$[1].id").value(secondId))
+                .andExpect(header().exists(PageCursor.NEXT_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId))
+                        .param("after", firstPage.getResponse().getHeader(PageCursor.NEXT_HEADER))
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(thirdId))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_HEADER));
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenCursorMalformed() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId))
+                        .param("after", "not a cursor")
+                        .param("size", "2"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void shouldUpdateItemWhenValid() throws Exception {
         long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
@@ -17,6 +17,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -61,6 +62,32 @@ class ItemDataJpaTest {
         assertEquals(expectedList, itemRepository.searchItemByNameOrDescription(searchText, PageRequest.of(0, 2)));
     }
 
+    @Test
+    public void shouldSearchForAvailableItemsIgnoringCase() {
+        UserDto userDto = UserDto.builder().name("Mark").email("mark@email.com").build();
+        User owner = UserMapper.fromUserDto(userDto);
+        owner = userRepository.save(owner);
+
+        Item item1 = ItemMapper.fromItemDto(ItemDto.builder().name("Drill").description("Cordless").available(true).build());
+        Item item2 = ItemMapper.fromItemDto(ItemDto.builder().name("Saw").description("Fits any DRILL").available(true).build());
+        Item item3 = ItemMapper.fromItemDto(ItemDto.builder().name("Old drill").description("Broken").available(false).build());
+
+        item1.setOwner(owner);
+        item2.setOwner(owner);
+        item3.setOwner(owner);
+
+        itemRepository.save(item1);
+        itemRepository.save(item2);
+        itemRepository.save(item3);
+        em.flush();
+        em.clear();
+
+        List<Item> actual = itemRepository.searchAvailableItemsByNameOrDescription("dRiLl", PageRequest.of(0, 10));
+
+        assertEquals(List.of(item1.getId(), item2.getId()),
+                actual.stream().map(Item::getId).sorted().collect(Collectors.toList()));
+    }
+
     @AfterEach
     private void delete() {
         itemRepository.deleteAll();
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.request.dto.ItemRequestDescription;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.CrudOperations;
+import ru.practicum.shareit.util.exception.UserNotFoundException;
+import ru.practicum.shareit.util.metrics.QueryCountFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.item.search.engine=memory")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemImportTest extends CrudOperations {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemImportService itemImportService;
+
+    @Autowired
+    private ItemSearchEngine itemSearchEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void importItems_whenSomeRowsInvalid_thenSaveTheRestAndReportLines() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        long requesterId = createUser(UserDto.builder().name("Toma").email("toma@email.com").build()).getId();
+        ItemRequestDescription description = new ItemRequestDescription();
+        description.setDescription("Need a drill");
+        long requestId = createItemRequest(description, requesterId).getId();
+        long existingId = createItem(item("Saw"), ownerId).getId();
+
+        String ndjson = String.join("\n",
+                json(item("Drill", requestId)),
+                "{\"name\": \"Broken\"",
+                json(item("")),
+                "",
+                json(item("Hammer", 9999L)),
+                json(item("Ladder").toBuilder().id(existingId).build())
+        );
+
+        mockMvc.perform(post("/items/import")
+                        .content(ndjson)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[1].line").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value("name: must not be blank"))
+                .andExpect(jsonPath("$.errors[2].line").value(5))
+                .andExpect(jsonPath("$.errors[2].message").value("Item request 9999 not found"));
+
+        List<Item> items = itemRepository.findAll();
+        assertEquals(List.of("Drill", "Ladder", "Saw"),
+                items.stream().map(Item::getName).sorted().collect(Collectors.toList()));
+        Item drill = items.stream().filter(item -> item.getName().equals("Drill")).findFirst().orElseThrow();
+        assertEquals(requestId, drill.getRequest().getId());
+        assertEquals("Saw", itemRepository.findById(existingId).orElseThrow().getName());
+    }
+
+    @Test
+    void importItems_whenManyRows_thenInsertedInBatches() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        int rows = 1200;
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            ndjson.append(json(item("Item " + i))).append('\n');
+        }
+
+        MvcResult result = mockMvc.perform(post("/items/import")
+                        .content(ndjson.toString())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ItemImportResult response = objectMapper.readValue(result.getResponse().getContentAsString(), ItemImportResult.class);
+        assertEquals(rows, response.getImported());
+        assertEquals(0, response.getFailed());
+        assertEquals(rows, itemRepository.count());
+        int queries = Integer.parseInt(result.getResponse().getHeader(QueryCountFilter.HEADER));
+        assertTrue(queries < rows / 10, queries + " statements for " + rows + " rows");
+    }
+
+    @Test
+    void importItems_whenChunkRolledBack_thenRowsNotSearchable() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        byte[] ndjson = json(item("Drill")).getBytes(StandardCharsets.UTF_8);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                itemImportService.importItems(ownerId, new ByteArrayInputStream(ndjson));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, itemRepository.count());
+        assertEquals(Collections.emptyList(), itemSearchEngine.search("drill", PageRequest.of(0, 10)));
+
+        itemImportService.importItems(ownerId, new ByteArrayInputStream(ndjson));
+        assertEquals(List.of("Drill"), itemSearchEngine.search("drill", PageRequest.of(0, 10)).stream()
+                .map(Item::getName)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void importItems_whenOwnerNotFound_thenUserNotFoundException() throws Exception {
+        mockMvc.perform(post("/items/import")
+                        .content(json(item("Drill")))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("X-Sharer-User-Id", "9999"))
+                .andExpect(status().isNotFound())
+                .andExpect(result -> assertTrue(result.getResolvedException()
+                        instanceof UserNotFoundException));
+    }
+
+    private String json(ItemDto itemDto) throws Exception {
+        return objectMapper.writeValueAsString(itemDto);
+    }
+}
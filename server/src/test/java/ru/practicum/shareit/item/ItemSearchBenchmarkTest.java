@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Latency of the current {@code LOWER(..) LIKE} search against the {@code pg_trgm} backed {@code ILIKE} search.
+ * Needs a real PostgreSQL, so it only runs when a JDBC url is given:
+ * {@code mvn test -Dtest=ItemSearchBenchmarkTest -Dshareit.benchmark.url=jdbc:postgresql://localhost:6541/shareit
+ * -Dshareit.benchmark.user=postgres -Dshareit.benchmark.password=iamroot}
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark.url", matches = ".+")
+class ItemSearchBenchmarkTest {
+
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final String[] QUERIES = {"drill", "saw", "ladder", "ab12"};
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    private static final String LIKE_QUERY = "SELECT * FROM bench_items AS it " +
+            "WHERE (LOWER(it.name) LIKE LOWER(CONCAT('%', ?, '%')) " +
+            "OR LOWER(it.description) LIKE LOWER(CONCAT('%', ?, '%'))) " +
+            "AND it.is_available = TRUE LIMIT 10";
+
+    private static final String TRIGRAM_QUERY = "SELECT * FROM bench_items AS it " +
+            "WHERE (it.name ILIKE CONCAT('%', ?, '%') " +
+            "OR it.description ILIKE CONCAT('%', ?, '%')) " +
+            "AND it.is_available = TRUE LIMIT 10";
+
+    @Test
+    void compareLikeAndTrigramSearch() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("shareit.benchmark.url"),
+                System.getProperty("shareit.benchmark.user"),
+                System.getProperty("shareit.benchmark.password"))) {
+            createTable(connection);
+            for (int size : SIZES) {
+                fill(connection, size);
+                report(size, "like", measure(connection, LIKE_QUERY));
+                report(size, "trigram", measure(connection, TRIGRAM_QUERY));
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE bench_items");
+            }
+        }
+    }
+
+    private void createTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            statement.execute("DROP TABLE IF EXISTS bench_items");
+            statement.execute("CREATE TABLE bench_items (" +
+                    "id BIGSERIAL PRIMARY KEY, " +
+                    "name VARCHAR(255) NOT NULL, " +
+                    "description VARCHAR(512) NOT NULL, " +
+                    "is_available BOOLEAN)");
+            statement.execute("CREATE INDEX ON bench_items USING gin (name gin_trgm_ops) WHERE is_available = TRUE");
+            statement.execute("CREATE INDEX ON bench_items USING gin (description gin_trgm_ops) WHERE is_available = TRUE");
+        }
+    }
+
+    private void fill(Connection connection, int size) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE bench_items");
+            statement.execute("INSERT INTO bench_items (name, description, is_available) " +
+                    "SELECT (ARRAY['Drill', 'Saw', 'Ladder', 'Tent', 'Bike'])[1 + i % 5] || ' ' || md5(i::text), " +
+                    "md5(random()::text) || ' ' || md5(random()::text), " +
+                    "i % 10 <> 0 " +
+                    "FROM generate_series(1, " + size + ") AS i");
+            statement.execute("ANALYZE bench_items");
+        }
+    }
+
+    private long[] measure(Connection connection, String sql) throws SQLException {
+        long[] nanos = new long[ITERATIONS];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+                String text = QUERIES[i % QUERIES.length];
+                statement.setString(1, text);
+                statement.setString(2, text);
+                long start = System.nanoTime();
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getLong(1);
+                    }
+                }
+                if (i >= WARMUP) {
+                    nanos[i - WARMUP] = System.nanoTime() - start;
+                }
+            }
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private void report(int size, String engine, long[] sortedNanos) {
+        log.info("items={} engine={} p50={}ms p99={}ms",
+                size,
+                engine,
+                String.format("%.3f", percentile(sortedNanos, 0.50) / 1_000_000.0),
+                String.format("%.3f", percentile(sortedNanos, 0.99) / 1_000_000.0));
+    }
+
+    private long percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)];
+    }
+
+}
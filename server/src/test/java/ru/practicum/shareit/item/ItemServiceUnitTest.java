@@ -1,14 +1,19 @@
 package ru.practicum.shareit.item;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingClosest;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.dto.CommentInfo;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -17,16 +22,22 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.exception.CommentNotAuthorisedException;
+import ru.practicum.shareit.util.exception.ItemNotFoundException;
 import ru.practicum.shareit.util.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.util.exception.UserNotFoundException;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -35,15 +46,18 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ItemServiceUnitTest {
 
-    @InjectMocks
     public ItemServiceImpl itemService;
     @Mock
     private ItemRepository itemRepository;
@@ -55,6 +69,22 @@ class ItemServiceUnitTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Spy
+    private ItemCache itemCache = new ItemCache(new ConcurrentMapCacheManager(ItemCache.ITEMS, ItemCache.ITEM_COMMENTS));
+    @Mock
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final Clock clock = Clock.fixed(Instant.now(), ZoneId.systemDefault());
+    private final LocalDateTime now = LocalDateTime.now(clock);
+
+    @BeforeEach
+    void setUp() {
+        ItemBookingSummaryService itemBookingSummaryService = new ItemBookingSummaryService(
+                itemBookingSummaryRepository, bookingRepository, itemRepository, itemCache, clock);
+        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository,
+                itemRequestRepository, itemSearchEngine, itemCache, itemBookingSummaryService, clock);
+    }
 
     @Test
     void createItem_whenUserIdInvalid_thenUserNotFoundException() {
@@ -130,65 +160,135 @@ class ItemServiceUnitTest {
                 ));
     }
 
-//    @Test
-//    void getItemById_whenUserIdAndItemIdValid_thenReturnItem() {
-//        User user = new User();
-//        long userId = 1L;
-//        user.setId(userId);
-//
-//        Item item = new Item();
-//        long itemId = 1L;
-//        item.setId(itemId);
-//        item.setOwner(user);
-//
-//        List<BookingClosest> nextBookingClosest = List.of(new BookingClosest());
-//        List<BookingClosest> lastBookingClosest = List.of(new BookingClosest());
-//
-//        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-//        when(commentRepository.findAllByItemId(itemId)).thenReturn(Collections.emptyList());
-//        when(bookingRepository.findNextClosestBookingByOwnerId(anyLong(), anyLong()))
-//                .thenReturn(nextBookingClosest);
-//        when(bookingRepository.findLastClosestBookingByOwnerId(anyLong(), anyLong()))
-//                .thenReturn(lastBookingClosest);
-//
-//        ItemDto actualItemDto = ItemMapper.toItemDto(item);
-//        actualItemDto.setComments(Collections.emptyList());
-//        actualItemDto.setNextBooking(nextBookingClosest.get(0));
-//        actualItemDto.setLastBooking(lastBookingClosest.get(0));
-//        ItemDto expectItemDto = itemService.getItemById(itemId, userId);
-//        assertEquals(actualItemDto, expectItemDto);
-//    }
-
-//    @Test
-//    void getItemsByOwnerId_whenUserIdAndItemIdValid_thenReturnItemsList() {
-//        int from = 0, size = 10;
-//        Pageable page = PageRequest.of(from / size, size);
-//
-//        User user = new User();
-//        long userId = 1L;
-//        user.setId(userId);
-//
-//        Item item = new Item();
-//        long itemId = 1L;
-//        item.setId(itemId);
-//        item.setOwner(user);
-//
-//        List<BookingClosest> nextBookingClosest = List.of(new BookingClosest());
-//        List<BookingClosest> lastBookingClosest = List.of(new BookingClosest());
-//
-//        when(itemRepository.findAllByOwnerIdOrderById(userId, page)).thenReturn(List.of(item));
-//        when(bookingRepository.findNextClosestBookingByOwnerId(anyLong(), anyLong()))
-//                .thenReturn(nextBookingClosest);
-//        when(bookingRepository.findLastClosestBookingByOwnerId(anyLong(), anyLong()))
-//                .thenReturn(lastBookingClosest);
-//
-//        List<ItemDto> expectItemDto = List.of(ItemMapper.toItemDto(item));
-//        expectItemDto.get(0).setComments(Collections.emptyList());
-//        expectItemDto.get(0).setNextBooking(nextBookingClosest.get(0));
-//        expectItemDto.get(0).setLastBooking(lastBookingClosest.get(0));
-//        List<ItemDto> actualItemDto = itemService.getItemsByOwnerId(userId, from, size);
-//        assertEquals(expectItemDto, actualItemDto);
-//    }
+    @Test
+    void getItemById_whenUserIdAndItemIdValid_thenReturnItem() {
+        User user = new User();
+        long userId = 1L;
+        user.setId(userId);
+
+        Item item = new Item();
+        long itemId = 1L;
+        item.setId(itemId);
+        item.setOwner(user);
+
+        BookingClosest nextBookingClosest = new BookingClosest(1L, 2L, itemId);
+        BookingClosest lastBookingClosest = new BookingClosest(2L, 2L, itemId);
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findAllInfoByItemId(itemId)).thenReturn(Collections.emptyList());
+        when(bookingRepository.findNextClosestBookingsByItemIds(List.of(itemId), now))
+                .thenReturn(List.of(nextBookingClosest));
+        when(bookingRepository.findLastClosestBookingsByItemIds(List.of(itemId), now))
+                .thenReturn(List.of(lastBookingClosest));
+
+        ItemDto expectItemDto = ItemMapper.toItemDto(item);
+        expectItemDto.setComments(Collections.emptyList());
+        expectItemDto.setNextBooking(nextBookingClosest);
+        expectItemDto.setLastBooking(lastBookingClosest);
+        ItemDto actualItemDto = itemService.getItemById(itemId, userId);
+        assertEquals(expectItemDto, actualItemDto);
+    }
+
+    @Test
+    void getItemById_whenItemIdInvalid_thenItemNotFoundException() {
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.getItemById(1L, 1L));
+    }
+
+    @Test
+    void getItemById_whenViewedAgain_thenServeFromCacheWithoutBookingsForOthers() {
+        User user = new User();
+        long userId = 1L;
+        user.setId(userId);
+
+        Item item = new Item();
+        long itemId = 1L;
+        item.setId(itemId);
+        item.setOwner(user);
+
+        BookingClosest nextBookingClosest = new BookingClosest(1L, 2L, itemId);
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findAllInfoByItemId(itemId)).thenReturn(Collections.emptyList());
+        when(bookingRepository.findNextClosestBookingsByItemIds(List.of(itemId), now))
+                .thenReturn(List.of(nextBookingClosest));
+
+        assertEquals(nextBookingClosest, itemService.getItemById(itemId, userId).getNextBooking());
+        assertNull(itemService.getItemById(itemId, 2L).getNextBooking());
+        assertEquals(nextBookingClosest, itemService.getItemById(itemId, userId).getNextBooking());
+
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(commentRepository, times(1)).findAllInfoByItemId(itemId);
+        verify(bookingRepository, times(1)).findNextClosestBookingsByItemIds(List.of(itemId), now);
+    }
+
+    @Test
+    void getItemById_whenItemUpdated_thenLoadItemAgain() {
+        User user = new User();
+        long userId = 1L;
+        user.setId(userId);
+
+        Item item = new Item();
+        long itemId = 1L;
+        item.setId(itemId);
+        item.setName("Old");
+        item.setOwner(user);
+
+        Item updatedItem = new Item();
+        updatedItem.setId(itemId);
+        updatedItem.setName("New");
+        updatedItem.setOwner(user);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item), Optional.of(updatedItem));
+        when(commentRepository.findAllInfoByItemId(itemId)).thenReturn(Collections.emptyList());
+
+        assertEquals("Old", itemService.getItemById(itemId, userId).getName());
+        itemService.updateItem(itemId, userId, ItemMapper.toItemDto(updatedItem));
+        assertEquals("New", itemService.getItemById(itemId, userId).getName());
+
+        verify(commentRepository, times(1)).findAllInfoByItemId(itemId);
+    }
+
+    @Test
+    void getItemsByOwnerId_whenUserIdAndItemIdValid_thenReturnItemsList() {
+        int from = 0, size = 10;
+        Pageable page = PageRequest.of(from / size, size);
+
+        User user = new User();
+        long userId = 1L;
+        user.setId(userId);
+
+        Item item1 = new Item();
+        long itemId1 = 1L;
+        item1.setId(itemId1);
+        item1.setOwner(user);
+
+        Item item2 = new Item();
+        long itemId2 = 2L;
+        item2.setId(itemId2);
+        item2.setOwner(user);
+
+        BookingClosest nextBookingClosest = new BookingClosest(1L, 2L, itemId1);
+        BookingClosest lastBookingClosest = new BookingClosest(2L, 2L, itemId2);
+
+        when(itemRepository.findAllByOwnerIdOrderById(userId, page)).thenReturn(List.of(item1, item2));
+        when(bookingRepository.findNextClosestBookingsByItemIds(List.of(itemId1, itemId2), now))
+                .thenReturn(List.of(nextBookingClosest));
+        when(bookingRepository.findLastClosestBookingsByItemIds(List.of(itemId1, itemId2), now))
+                .thenReturn(List.of(lastBookingClosest));
+
+        List<ItemDto> expectItemDto = ItemMapper.toItemDto(List.of(item1, item2));
+        expectItemDto.get(0).setComments(Collections.emptyList());
+        expectItemDto.get(0).setNextBooking(nextBookingClosest);
+        expectItemDto.get(1).setComments(Collections.emptyList());
+        expectItemDto.get(1).setLastBooking(lastBookingClosest);
+        List<ItemDto> actualItemDto = itemService.getItemsByOwnerId(userId, from, size);
+        assertEquals(expectItemDto, actualItemDto);
+        verify(bookingRepository, times(1)).findNextClosestBookingsByItemIds(anyCollection(), any());
+        verify(bookingRepository, times(1)).findLastClosestBookingsByItemIds(anyCollection(), any());
+    }
 
     @Test
     void getItems_whenValid_thenReturnAllItems() {
@@ -202,7 +302,7 @@ class ItemServiceUnitTest {
         item.setOwner(user);
 
         when(itemRepository.findAll()).thenReturn(List.of(item));
-        when(commentRepository.findAllByItemIdIn(List.of(itemId))).thenReturn(Collections.emptyList());
+        when(commentRepository.findAllInfoByItemIdIn(List.of(itemId))).thenReturn(Collections.emptyList());
 
         List<ItemDto> expectItemDto = List.of(ItemMapper.toItemDto(item));
         expectItemDto.get(0).setComments(Collections.emptyList());
@@ -210,6 +310,37 @@ class ItemServiceUnitTest {
         assertEquals(expectItemDto, actualItemDto);
     }
 
+    @Test
+    void getItems_whenCommentsPresent_thenGroupCommentsByItem() {
+        User user = new User();
+        user.setId(1L);
+
+        Item item1 = new Item();
+        long itemId1 = 1L;
+        item1.setId(itemId1);
+        item1.setOwner(user);
+
+        Item item2 = new Item();
+        long itemId2 = 2L;
+        item2.setId(itemId2);
+        item2.setOwner(user);
+
+        ZonedDateTime created = ZonedDateTime.now();
+        CommentInfo comment1 = new CommentInfo(1L, "first", "author", created, itemId2);
+        CommentInfo comment2 = new CommentInfo(2L, "second", "author", created, itemId1);
+        CommentInfo comment3 = new CommentInfo(3L, "third", "author", created, itemId2);
+
+        when(itemRepository.findAll()).thenReturn(List.of(item1, item2));
+        when(commentRepository.findAllInfoByItemIdIn(List.of(itemId1, itemId2)))
+                .thenReturn(List.of(comment1, comment2, comment3));
+
+        List<ItemDto> expectItemDto = ItemMapper.toItemDto(List.of(item1, item2));
+        expectItemDto.get(0).setComments(CommentMapper.toCommentResponseDto(List.of(comment2)));
+        expectItemDto.get(1).setComments(CommentMapper.toCommentResponseDto(List.of(comment1, comment3)));
+        List<ItemDto> actualItemDto = itemService.getItems();
+        assertEquals(expectItemDto, actualItemDto);
+    }
+
     @Test
     void updateItem_whenValid_thenReturnUpdatedItem() {
         User user = new User();
@@ -227,7 +358,7 @@ class ItemServiceUnitTest {
 
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(newItem));
-        when(commentRepository.findAllByItemId(itemId)).thenReturn(Collections.emptyList());
+        when(commentRepository.findAllInfoByItemId(itemId)).thenReturn(Collections.emptyList());
 
         ItemDto expectItem = ItemMapper.toItemDto(newItem);
         expectItem.setComments(Collections.emptyList());
@@ -258,9 +389,9 @@ class ItemServiceUnitTest {
         int from = 0, size = 10;
         Pageable page = PageRequest.of(from / size, size);
 
-        when(itemRepository.searchItemByNameOrDescription(text2, page))
+        when(itemSearchEngine.search(text2, page))
                 .thenReturn(List.of(item1, item2));
-        when(itemRepository.searchItemByNameOrDescription(text3, page))
+        when(itemSearchEngine.search(text3, page))
                 .thenReturn(List.of(item1, item2));
 
         List<ItemDto> expectedList1 = Collections.emptyList();
@@ -308,7 +439,7 @@ class ItemServiceUnitTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByBookerIdPast(userId, PageRequest.of(0, 10)))
+        when(bookingRepository.findAllByBookerIdPast(userId, now, PageRequest.of(0, 10)))
                 .thenReturn(List.of(booking));
         when(commentRepository.save(any())).thenReturn(comment);
 
@@ -342,7 +473,7 @@ class ItemServiceUnitTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByBookerIdPast(userId, PageRequest.of(0, 10)))
+        when(bookingRepository.findAllByBookerIdPast(userId, now, PageRequest.of(0, 10)))
                 .thenReturn(Collections.emptyList());
 
         assertThrows(
@@ -379,7 +510,7 @@ class ItemServiceUnitTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByBookerIdPast(userId, PageRequest.of(0, 10)))
+        when(bookingRepository.findAllByBookerIdPast(userId, now, PageRequest.of(0, 10)))
                 .thenReturn(List.of(booking));
 
         assertThrows(
@@ -416,7 +547,7 @@ class ItemServiceUnitTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByBookerIdPast(userId, PageRequest.of(0, 10)))
+        when(bookingRepository.findAllByBookerIdPast(userId, now, PageRequest.of(0, 10)))
                 .thenReturn(List.of(booking));
 
         assertThrows(
@@ -9,6 +9,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.dto.ItemResponseForRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -26,6 +29,8 @@ class ItemRequestDataJpaTest {
     private UserRepository userRepository;
     @Autowired
     private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
 
     private static final int FROM = 0;
     private static final int SIZE = 10;
@@ -97,6 +102,34 @@ class ItemRequestDataJpaTest {
         assertEquals(expected, actual.toList());
     }
 
+    @Test
+    void getItemDescriptionForRequests() {
+        ItemRequest itemRequest1 = itemRequestRepository.findById(itemRequestId1).get();
+        ItemRequest itemRequest3 = itemRequestRepository.findById(itemRequestId3).get();
+        User owner = itemRequest3.getRequester();
+        saveItem("drill", owner, itemRequest1);
+        saveItem("saw", owner, itemRequest1);
+        saveItem("tent", owner, itemRequest3);
+        saveItem("bike", owner, null);
+
+        List<ItemResponseForRequest> actual = itemRepository
+                .getItemDescriptionForRequests(List.of(itemRequestId1, itemRequestId2, itemRequestId3));
+
+        assertEquals(3, actual.size());
+        assertEquals(2, actual.stream().filter(i -> i.getRequestId() == itemRequestId1).count());
+        assertEquals(1, actual.stream().filter(i -> i.getRequestId() == itemRequestId3).count());
+    }
+
+    private void saveItem(String name, User owner, ItemRequest request) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setRequest(request);
+        itemRepository.save(item);
+    }
+
     @AfterEach
     private void delete() {
         userRepository.deleteAll();
@@ -21,6 +21,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.util.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.util.exception.UserNotFoundException;
 
+import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -44,6 +45,8 @@ class ItemRequestServiceUnitTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private Clock clock;
 
     @Test
     void createNewItemRequest_whenValid_thenReturnRequest() {
@@ -60,6 +63,8 @@ class ItemRequestServiceUnitTest {
         itemRequest.setRequester(user);
         itemRequest.setCreated(ZonedDateTime.now());
 
+        when(clock.getZone()).thenReturn(itemRequest.getCreated().getZone());
+        when(clock.instant()).thenReturn(itemRequest.getCreated().toInstant());
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.save(any())).thenReturn(itemRequest);
 
@@ -97,15 +102,14 @@ class ItemRequestServiceUnitTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId))
                 .thenReturn(List.of(itemRequest));
-        when(itemRepository.getItemDescriptionForRequest(itemRequestId)).thenReturn(Collections.emptyList());
+        when(itemRepository.getItemDescriptionForRequests(List.of(itemRequestId))).thenReturn(Collections.emptyList());
 
         List<ItemRequestInfoWithItems> expected =
                 Stream.of(itemRequest)
                 .map(ItemRequestMapper::toItemRequestWithItemsDto)
                 .collect(Collectors.toList());
         for (ItemRequestInfoWithItems r : expected) {
-            List<ItemResponseForRequest> items = itemRepository.getItemDescriptionForRequest(r.getId());
-            r.setItems(items);
+            r.setItems(Collections.emptyList());
         }
         List<ItemRequestInfoWithItems> actual = itemRequestService.getUserItemRequests(userId);
         assertEquals(expected, actual);
@@ -144,20 +148,49 @@ class ItemRequestServiceUnitTest {
 
         when(itemRequestRepository.findByRequesterIdIsNot(userId, page))
                 .thenReturn(itemRequestPage);
-        when(itemRepository.getItemDescriptionForRequest(itemRequestId)).thenReturn(Collections.emptyList());
+        when(itemRepository.getItemDescriptionForRequests(List.of(itemRequestId))).thenReturn(Collections.emptyList());
 
         List<ItemRequestInfoWithItems> expected =
                 Stream.of(itemRequest)
                         .map(ItemRequestMapper::toItemRequestWithItemsDto)
                         .collect(Collectors.toList());
         for (ItemRequestInfoWithItems r : expected) {
-            List<ItemResponseForRequest> items = itemRepository.getItemDescriptionForRequest(r.getId());
-            r.setItems(items);
+            r.setItems(Collections.emptyList());
         }
         List<ItemRequestInfoWithItems> actual = itemRequestService.getOtherUsersItemRequests(userId, from, size);
         assertEquals(expected, actual);
     }
 
+    @Test
+    void getUserItemRequests_whenItemsPresent_thenGroupItemsByRequest() {
+        User user = new User();
+        long userId = 1L;
+        user.setId(userId);
+
+        ItemRequest first = new ItemRequest();
+        first.setId(1L);
+        first.setDescription("first");
+        first.setRequester(user);
+        first.setCreated(ZonedDateTime.now());
+        ItemRequest second = new ItemRequest();
+        second.setId(2L);
+        second.setDescription("second");
+        second.setRequester(user);
+        second.setCreated(ZonedDateTime.now());
+
+        ItemResponseForRequest drill = new ItemResponseForRequest(10L, "Drill", "Drill", true, 2L);
+        ItemResponseForRequest saw = new ItemResponseForRequest(11L, "Saw", "Saw", true, 2L);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId))
+                .thenReturn(List.of(first, second));
+        when(itemRepository.getItemDescriptionForRequests(List.of(1L, 2L))).thenReturn(List.of(drill, saw));
+
+        List<ItemRequestInfoWithItems> actual = itemRequestService.getUserItemRequests(userId);
+        assertEquals(Collections.emptyList(), actual.get(0).getItems());
+        assertEquals(List.of(drill, saw), actual.get(1).getItems());
+    }
+
     @Test
     void getItemRequestById_whenValid_thenReturnItemRequest() {
         User user = new User();
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.cache.ItemCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -27,6 +28,8 @@ class UserServiceUnitTest {
     private UserService userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ItemCache itemCache;
 
     @Test
     void createUser_whenValid_thenReturnUser() {
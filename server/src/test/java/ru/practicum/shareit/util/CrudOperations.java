@@ -14,6 +14,9 @@ import ru.practicum.shareit.request.dto.ItemRequestDescription;
 import ru.practicum.shareit.request.dto.ItemRequestInfo;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -22,6 +25,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureMockMvc
 public class CrudOperations {
 
+    /**
+     * How the API writes booking dates, seconds included.
+     */
+    protected static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -64,8 +72,8 @@ public class CrudOperations {
                         .content(objectMapper.writeValueAsString(bookingDto))
                         .header("X-Sharer-User-Id", String.valueOf(userId)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.start").value(String.valueOf(bookingDto.getStart())))
-                .andExpect(jsonPath("$.end").value(String.valueOf(bookingDto.getEnd())))
+                .andExpect(jsonPath("$.start").value(DATE_TIME.format(bookingDto.getStart())))
+                .andExpect(jsonPath("$.end").value(DATE_TIME.format(bookingDto.getEnd())))
                 .andExpect(jsonPath("$.status").value("WAITING"))
                 .andReturn();
         return objectMapper.readValue(
@@ -91,4 +99,27 @@ public class CrudOperations {
         );
     }
 
+    public static ItemDto item(String name) {
+        return item(name, null);
+    }
+
+    public static ItemDto item(String name, Long requestId) {
+        return ItemDto.builder().name(name).description("Description").available(true).requestId(requestId).build();
+    }
+
+    /**
+     * Booking of the item for three hours from {@code start}.
+     */
+    public static BookingDtoRequest bookingRequest(long itemId, LocalDateTime start) {
+        return bookingRequest(itemId, start, start.plusHours(3));
+    }
+
+    public static BookingDtoRequest bookingRequest(long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDtoRequest request = new BookingDtoRequest();
+        request.setItemId(itemId);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+
 }
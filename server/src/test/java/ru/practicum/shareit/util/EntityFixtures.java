@@ -0,0 +1,43 @@
+package ru.practicum.shareit.util;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+/**
+ * Saves users and items straight through the repositories, for tests and benchmarks that seed data
+ * without going through the controllers. The server publishes this class in its test jar.
+ */
+public class EntityFixtures {
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+
+    public EntityFixtures(UserRepository userRepository, ItemRepository itemRepository) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+    }
+
+    public User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@email.com");
+        return userRepository.save(user);
+    }
+
+    public Item item(User owner) {
+        return item(owner, null);
+    }
+
+    public Item item(User owner, ItemRequest request) {
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setRequest(request);
+        return itemRepository.save(item);
+    }
+}
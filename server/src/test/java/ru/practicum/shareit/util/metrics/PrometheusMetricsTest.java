@@ -0,0 +1,63 @@
+package ru.practicum.shareit.util.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.CrudOperations;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PrometheusMetricsTest extends CrudOperations {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheus_whenRequestsServed_thenRepositoryServiceAndQueryMetricsExported() throws Exception {
+        long ownerId = createUser(UserDto.builder().name("Mark").email("mark@email.com").build()).getId();
+        createItem(ItemDto.builder().name("Item").description("Description").available(true).build(), ownerId);
+        mockMvc.perform(get("/bookings/owner")
+                        .param("state", "WAITING")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/bookings/owner")
+                        .param("state", "NO_SUCH_STATE")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .header("X-Sharer-User-Id", String.valueOf(ownerId)));
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(metrics.contains("shareit_repository_seconds_count{booking_state=\"WAITING\",exception=\"none\","
+                + "method=\"findAllByItemOwnerIdAndStatusOrderByStartDesc\",repository=\"BookingRepository\",}"), metrics);
+        assertTrue(metrics.contains("shareit_repository_seconds_count{booking_state=\"none\",exception=\"none\","
+                + "method=\"findById\",repository=\"UserRepository\",}"), metrics);
+        assertTrue(metrics.contains("shareit_service_seconds_count{booking_state=\"WAITING\","
+                + "class=\"ru.practicum.shareit.booking.service.BookingServiceImpl\",exception=\"none\","
+                + "method=\"getOwnerItemsBooked\",}"), metrics);
+        assertTrue(metrics.contains("shareit_service_seconds_count{booking_state=\"UNKNOWN\","
+                + "class=\"ru.practicum.shareit.booking.service.BookingServiceImpl\",exception=\"UnsupportedStateException\","
+                + "method=\"getOwnerItemsBooked\",}"), metrics);
+        assertTrue(metrics.contains("http_server_requests_queries_count{method=\"POST\",uri=\"/items\",}"), metrics);
+        assertTrue(metrics.contains("http_server_requests_queries_bucket{method=\"GET\",uri=\"/bookings/owner\",le=\"5.0\",}"),
+                metrics);
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\","
+                + "status=\"200\",uri=\"/bookings/owner\",le="), metrics);
+    }
+}
@@ -0,0 +1,326 @@
+package ru.practicum.shareit.util.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.request.dto.ItemRequestDescription;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.EntityFixtures;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * SQL statements per request of every endpoint, read from the {@code X-Query-Count} header.
+ * Listings are measured with one and with three rows: a count growing with the rows is an N+1.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    private EntityFixtures fixtures;
+    private User owner;
+    private User booker;
+    private final List<Item> items = new ArrayList<>();
+    private final List<Booking> bookings = new ArrayList<>();
+    private final List<ItemRequest> requests = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new EntityFixtures(userRepository, itemRepository);
+        owner = fixtures.user("owner");
+        booker = fixtures.user("booker");
+        items.clear();
+        bookings.clear();
+        requests.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getUsers() throws Exception {
+        assertListBudget(1, () -> get("/users"), null);
+    }
+
+    @Test
+    void userEndpoints() throws Exception {
+        seed(1);
+        assertBudget(1, get("/users/{userId}", owner.getId()), null);
+        assertBudget(2, post("/users").contentType(MediaType.APPLICATION_JSON)
+                .content(json(UserDto.builder().name("New").email("new@email.com").build())), null);
+        assertBudget(2, patch("/users/{userId}", booker.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(json(UserDto.builder().name("Renamed").build())), null);
+        assertBudget(2, delete("/users/{userId}", fixtures.user("removed").getId()), null);
+    }
+
+    @Test
+    void getItemsByOwner() throws Exception {
+        assertListBudget(3, () -> get("/items").param("from", "0").param("size", "10"), owner);
+    }
+
+    @Test
+    void getItemsByOwnerAfter() throws Exception {
+        assertListBudget(3, () -> get("/items").param("after", "").param("size", "10"), owner);
+    }
+
+    @Test
+    void searchItems() throws Exception {
+        assertListBudget(2, () -> get("/items/search").param("text", "item").param("from", "0").param("size", "10"), owner);
+    }
+
+    @Test
+    void searchItemsAfter() throws Exception {
+        assertListBudget(2, () -> get("/items/search").param("text", "item").param("after", "").param("size", "10"), owner);
+    }
+
+    @Test
+    void itemEndpoints() throws Exception {
+        seed(1);
+        long itemId = items.get(0).getId();
+        assertBudget(3, get("/items/{itemId}", itemId), owner);
+        assertBudget(3, get("/items/{itemId}", itemId), booker);
+        assertBudget(3, post("/items").contentType(MediaType.APPLICATION_JSON)
+                .content(json(ItemDto.builder().name("New").description("New item").available(true).build())), owner);
+        assertBudget(4, patch("/items/{itemId}", itemId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(ItemDto.builder().name("Renamed").build())), owner);
+        CommentRequestDto comment = new CommentRequestDto();
+        comment.setText("Again");
+        assertBudget(5, post("/items/{itemId}/comment", itemId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(comment)), booker);
+        assertBudget(2, delete("/items/{itemId}", fixtures.item(owner).getId()), owner);
+    }
+
+    @Nested
+    class BookingListings {
+
+        @ParameterizedTest
+        @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        void getBookingsByBooker(String state) throws Exception {
+            assertListBudget(2, () -> get("/bookings").param("state", state).param("from", "0").param("size", "10"), booker);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        void getBookingsByBookerAfter(String state) throws Exception {
+            assertListBudget(2, () -> get("/bookings").param("state", state).param("after", "").param("size", "10"), booker);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        void getBookingsByOwner(String state) throws Exception {
+            assertListBudget(2, () -> get("/bookings/owner").param("state", state).param("from", "0").param("size", "10"), owner);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        void getBookingsByOwnerAfter(String state) throws Exception {
+            assertListBudget(2, () -> get("/bookings/owner").param("state", state).param("after", "").param("size", "10"), owner);
+        }
+    }
+
+    @Test
+    void bookingEndpoints() throws Exception {
+        seed(1);
+        long waitingId = bookings.get(1).getId();
+        assertBudget(3, get("/bookings/{bookingId}", waitingId), booker);
+        assertBudget(7, patch("/bookings/{bookingId}", waitingId).param("approved", "true"), owner);
+        BookingDtoRequest request = new BookingDtoRequest();
+        request.setItemId(items.get(0).getId());
+        request.setStart(NOW.plusDays(10));
+        request.setEnd(NOW.plusDays(11));
+        assertBudget(5, post("/bookings").contentType(MediaType.APPLICATION_JSON).content(json(request)), booker);
+    }
+
+    /**
+     * Decisions on one booking and on three: the same statements, the status updates go as one JDBC batch.
+     */
+    @Test
+    void updateBookings() throws Exception {
+        seed(1);
+        int one = queries(patch("/bookings").contentType(MediaType.APPLICATION_JSON)
+                .content(json(decisions(bookings.get(1)))), owner);
+        seed(3);
+        int three = queries(patch("/bookings").contentType(MediaType.APPLICATION_JSON)
+                .content(json(decisions(bookings.get(3), bookings.get(5), bookings.get(7)))), owner);
+        assertEquals(one, three, "Statements grow with the number of decisions");
+        assertTrue(three <= 7, three + " statements, budget 7");
+    }
+
+    @Test
+    void getUserItemRequests() throws Exception {
+        assertListBudget(3, () -> get("/requests"), booker);
+    }
+
+    @Test
+    void getOtherUsersItemRequests() throws Exception {
+        assertListBudget(2, () -> get("/requests/all").param("from", "0").param("size", "10"), owner);
+    }
+
+    @Test
+    void getOtherUsersItemRequestsAfter() throws Exception {
+        assertListBudget(2, () -> get("/requests/all").param("after", "").param("size", "10"), owner);
+    }
+
+    @Test
+    void itemRequestEndpoints() throws Exception {
+        seed(1);
+        assertBudget(3, get("/requests/{requestId}", requests.get(0).getId()), owner);
+        ItemRequestDescription description = new ItemRequestDescription();
+        description.setDescription("Need one");
+        assertBudget(2, post("/requests").contentType(MediaType.APPLICATION_JSON).content(json(description)), booker);
+    }
+
+    /**
+     * The listing with one row and with three rows: both must run the same statements, within the budget.
+     */
+    private void assertListBudget(int budget, Supplier<MockHttpServletRequestBuilder> request, User user) throws Exception {
+        seed(1);
+        int one = queries(request.get(), user);
+        seed(2);
+        int three = queries(request.get(), user);
+        assertEquals(one, three, "Statements grow with the number of rows");
+        assertTrue(three <= budget, three + " statements, budget " + budget);
+    }
+
+    private void assertBudget(int budget, MockHttpServletRequestBuilder request, User user) throws Exception {
+        int queries = queries(request, user);
+        assertTrue(queries <= budget, queries + " statements, budget " + budget);
+    }
+
+    private int queries(MockHttpServletRequestBuilder request, User user) throws Exception {
+        itemCache.clear();
+        if (user != null) {
+            request.header("X-Sharer-User-Id", String.valueOf(user.getId()));
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertTrue(result.getResponse().getStatus() < 400, result.getResponse().getContentAsString());
+        String header = result.getResponse().getHeader(QueryCountFilter.HEADER);
+        assertNotNull(header);
+        return Integer.parseInt(header);
+    }
+
+    /**
+     * {@code count} more items of the owner, each requested by the booker, booked by the booker in the past
+     * and in the future, and commented by the booker; their booking summaries are built.
+     */
+    private void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            int n = items.size();
+            ItemRequest request = new ItemRequest();
+            request.setDescription("Request " + n);
+            request.setRequester(booker);
+            request.setCreated(ZonedDateTime.now().minusHours(n));
+            requests.add(itemRequestRepository.save(request));
+            Item item = fixtures.item(owner, request);
+            items.add(item);
+            bookings.add(booking(item, NOW.minusDays(n + 2), NOW.minusDays(n + 1), BookingState.APPROVED));
+            bookings.add(booking(item, NOW.plusDays(n + 1), NOW.plusDays(n + 2), BookingState.WAITING));
+            Comment comment = new Comment();
+            comment.setText("Comment " + n);
+            comment.setItem(item);
+            comment.setAuthor(booker);
+            comment.setCreated(ZonedDateTime.now());
+            commentRepository.save(comment);
+            itemBookingSummaryService.rebuild(List.of(item.getId()));
+            fixtures.user("user" + n);
+        }
+    }
+
+    private Booking booking(Item item, LocalDateTime start, LocalDateTime end, BookingState status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return bookingRepository.save(booking);
+    }
+
+    private static List<BookingDecisionDto> decisions(Booking... waiting) {
+        List<BookingDecisionDto> decisions = new ArrayList<>();
+        for (Booking booking : waiting) {
+            decisions.add(new BookingDecisionDto(booking.getId(), true));
+        }
+        return decisions;
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
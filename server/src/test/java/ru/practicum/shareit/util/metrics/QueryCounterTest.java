@@ -0,0 +1,88 @@
+package ru.practicum.shareit.util.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.util.exception.QueryBudgetExceededException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCounterTest {
+
+    private final QueryBudgetProperties budget = new QueryBudgetProperties();
+    private final QueryCounter queryCounter = new QueryCounter(budget);
+
+    @AfterEach
+    void tearDown() {
+        queryCounter.stop();
+    }
+
+    @Test
+    void inspect_whenStarted_thenCountsStatements() {
+        queryCounter.start();
+        queryCounter.inspect("select 1");
+        queryCounter.inspect("select 2");
+
+        assertEquals(2, queryCounter.current());
+        assertEquals(2, queryCounter.stop());
+        assertEquals(0, queryCounter.current());
+    }
+
+    @Test
+    void inspect_whenNotStarted_thenNotCounted() {
+        assertEquals("select 1", queryCounter.inspect("select 1"));
+
+        assertEquals(0, queryCounter.stop());
+    }
+
+    @Test
+    void inspect_whenOverBudgetAndLog_thenPasses() {
+        budget.setMaxStatements(1);
+        queryCounter.start();
+        queryCounter.inspect("select 1");
+        queryCounter.inspect("select 2");
+
+        assertTrue(queryCounter.exceeds(queryCounter.current()));
+    }
+
+    @Test
+    void inspect_whenOverBudgetAndFail_thenThrows() {
+        budget.setMaxStatements(1);
+        budget.setOnExceed(QueryBudgetProperties.Action.FAIL);
+        queryCounter.start();
+        queryCounter.inspect("select 1");
+
+        QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class,
+                () -> queryCounter.inspect("select 2"));
+        assertTrue(e.getMessage().contains("select 2"));
+    }
+
+    @Test
+    void inspect_whenOverBudgetAndFailButUnbudgeted_thenPasses() {
+        budget.setMaxStatements(1);
+        budget.setOnExceed(QueryBudgetProperties.Action.FAIL);
+        queryCounter.start(false);
+        queryCounter.inspect("select 1");
+        queryCounter.inspect("select 2");
+
+        assertEquals(2, queryCounter.current());
+    }
+
+    @Test
+    void isBudgeted_whenPathExcluded_thenFalse() {
+        budget.setExcludedPaths(List.of("/items/import", "/bookings/*/export"));
+
+        assertFalse(queryCounter.isBudgeted("/items/import"));
+        assertFalse(queryCounter.isBudgeted("/bookings/1/export"));
+        assertTrue(queryCounter.isBudgeted("/items"));
+    }
+
+    @Test
+    void exceeds_whenNoBudget_thenFalse() {
+        assertFalse(queryCounter.exceeds(1000));
+    }
+}